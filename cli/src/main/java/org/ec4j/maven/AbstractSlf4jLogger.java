@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.spi.LocationAwareLogger;
+
+/**
+ * A base for the SLF4J {@link Logger}s of this plugin that funnels all logging calls into
+ * {@link #handle(int, String, Object[])}.
+ * <p>
+ * Maven 3.x provides SLF4J 1.7 to plugins, hence this class implements {@link Logger} directly rather than extending
+ * some of the helpers introduced in SLF4J 2 and it uses only the SLF4J 1.7 API. Markers are ignored.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+abstract class AbstractSlf4jLogger implements Logger {
+
+    static final int DEBUG = LocationAwareLogger.DEBUG_INT;
+    static final int ERROR = LocationAwareLogger.ERROR_INT;
+    static final int INFO = LocationAwareLogger.INFO_INT;
+    static final int TRACE = LocationAwareLogger.TRACE_INT;
+    static final int WARN = LocationAwareLogger.WARN_INT;
+
+    /**
+     * @param level one of {@link #TRACE}, {@link #DEBUG}, {@link #INFO}, {@link #WARN} and {@link #ERROR}
+     * @return the upper case name of the given {@code level}
+     */
+    static String levelName(int level) {
+        switch (level) {
+            case TRACE:
+                return "TRACE";
+            case DEBUG:
+                return "DEBUG";
+            case INFO:
+                return "INFO";
+            case WARN:
+                return "WARN";
+            case ERROR:
+                return "ERROR";
+            default:
+                throw new IllegalArgumentException("Unexpected level " + level);
+        }
+    }
+
+    private final String name;
+
+    AbstractSlf4jLogger(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Called only if the given {@code level} is enabled.
+     *
+     * @param level one of {@link #TRACE}, {@link #DEBUG}, {@link #INFO}, {@link #WARN} and {@link #ERROR}
+     * @param messagePattern the message pattern with <code>{}</code> placeholders
+     * @param arguments the arguments, possibly followed by a {@link Throwable} to log; never {@code null}
+     */
+    protected abstract void handle(int level, String messagePattern, Object[] arguments);
+
+    /**
+     * @param level one of {@link #TRACE}, {@link #DEBUG}, {@link #INFO}, {@link #WARN} and {@link #ERROR}
+     * @return {@code true} if messages of the given {@code level} should be logged
+     */
+    protected abstract boolean isEnabled(int level);
+
+    private void log(int level, String messagePattern, Object... arguments) {
+        if (isEnabled(level)) {
+            handle(level, messagePattern, arguments == null ? new Object[0] : arguments);
+        }
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return isEnabled(TRACE);
+    }
+
+    @Override
+    public boolean isTraceEnabled(Marker marker) {
+        return isEnabled(TRACE);
+    }
+
+    @Override
+    public void trace(String msg) {
+        log(TRACE, msg);
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        log(TRACE, format, arg);
+    }
+
+    @Override
+    public void trace(String format, Object arg1, Object arg2) {
+        log(TRACE, format, arg1, arg2);
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        log(TRACE, format, arguments);
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        log(TRACE, msg, t);
+    }
+
+    @Override
+    public void trace(Marker marker, String msg) {
+        log(TRACE, msg);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg) {
+        log(TRACE, format, arg);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg1, Object arg2) {
+        log(TRACE, format, arg1, arg2);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object... arguments) {
+        log(TRACE, format, arguments);
+    }
+
+    @Override
+    public void trace(Marker marker, String msg, Throwable t) {
+        log(TRACE, msg, t);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return isEnabled(DEBUG);
+    }
+
+    @Override
+    public boolean isDebugEnabled(Marker marker) {
+        return isEnabled(DEBUG);
+    }
+
+    @Override
+    public void debug(String msg) {
+        log(DEBUG, msg);
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        log(DEBUG, format, arg);
+    }
+
+    @Override
+    public void debug(String format, Object arg1, Object arg2) {
+        log(DEBUG, format, arg1, arg2);
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        log(DEBUG, format, arguments);
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        log(DEBUG, msg, t);
+    }
+
+    @Override
+    public void debug(Marker marker, String msg) {
+        log(DEBUG, msg);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg) {
+        log(DEBUG, format, arg);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg1, Object arg2) {
+        log(DEBUG, format, arg1, arg2);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object... arguments) {
+        log(DEBUG, format, arguments);
+    }
+
+    @Override
+    public void debug(Marker marker, String msg, Throwable t) {
+        log(DEBUG, msg, t);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return isEnabled(INFO);
+    }
+
+    @Override
+    public boolean isInfoEnabled(Marker marker) {
+        return isEnabled(INFO);
+    }
+
+    @Override
+    public void info(String msg) {
+        log(INFO, msg);
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        log(INFO, format, arg);
+    }
+
+    @Override
+    public void info(String format, Object arg1, Object arg2) {
+        log(INFO, format, arg1, arg2);
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        log(INFO, format, arguments);
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        log(INFO, msg, t);
+    }
+
+    @Override
+    public void info(Marker marker, String msg) {
+        log(INFO, msg);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg) {
+        log(INFO, format, arg);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg1, Object arg2) {
+        log(INFO, format, arg1, arg2);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object... arguments) {
+        log(INFO, format, arguments);
+    }
+
+    @Override
+    public void info(Marker marker, String msg, Throwable t) {
+        log(INFO, msg, t);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return isEnabled(WARN);
+    }
+
+    @Override
+    public boolean isWarnEnabled(Marker marker) {
+        return isEnabled(WARN);
+    }
+
+    @Override
+    public void warn(String msg) {
+        log(WARN, msg);
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        log(WARN, format, arg);
+    }
+
+    @Override
+    public void warn(String format, Object arg1, Object arg2) {
+        log(WARN, format, arg1, arg2);
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        log(WARN, format, arguments);
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        log(WARN, msg, t);
+    }
+
+    @Override
+    public void warn(Marker marker, String msg) {
+        log(WARN, msg);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg) {
+        log(WARN, format, arg);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg1, Object arg2) {
+        log(WARN, format, arg1, arg2);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object... arguments) {
+        log(WARN, format, arguments);
+    }
+
+    @Override
+    public void warn(Marker marker, String msg, Throwable t) {
+        log(WARN, msg, t);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return isEnabled(ERROR);
+    }
+
+    @Override
+    public boolean isErrorEnabled(Marker marker) {
+        return isEnabled(ERROR);
+    }
+
+    @Override
+    public void error(String msg) {
+        log(ERROR, msg);
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        log(ERROR, format, arg);
+    }
+
+    @Override
+    public void error(String format, Object arg1, Object arg2) {
+        log(ERROR, format, arg1, arg2);
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        log(ERROR, format, arguments);
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        log(ERROR, msg, t);
+    }
+
+    @Override
+    public void error(Marker marker, String msg) {
+        log(ERROR, msg);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg) {
+        log(ERROR, format, arg);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg1, Object arg2) {
+        log(ERROR, format, arg1, arg2);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object... arguments) {
+        log(ERROR, format, arguments);
+    }
+
+    @Override
+    public void error(Marker marker, String msg, Throwable t) {
+        log(ERROR, msg, t);
+    }
+}
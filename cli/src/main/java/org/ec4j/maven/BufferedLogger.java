@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+/**
+ * A SLF4J {@link Logger} collecting the messages of a single Mojo execution and passing them to the underlying
+ * {@link Logger} in blocks on {@link #flush()}. With {@code mvn -T}, the blocks of concurrent executions do not
+ * interleave with each other, so that the debug and trace output of each file stays readable, and the executions do not
+ * contend on the underlying {@link Logger} for every single message.
+ * <p>
+ * The levels are determined once on construction, hence the messages that would not be logged anyway cost just a
+ * field read. A Mojo execution runs on a single thread, so the buffer is practically thread confined; the few
+ * messages coming from background threads are added under the same uncontended lock.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class BufferedLogger extends AbstractSlf4jLogger {
+
+    /** A logging call to replay on {@link BufferedLogger#flush()} */
+    static class Entry {
+        private final Object[] arguments;
+        private final int level;
+        private final String messagePattern;
+
+        Entry(int level, String messagePattern, Object[] arguments) {
+            this.level = level;
+            this.messagePattern = messagePattern;
+            this.arguments = arguments;
+        }
+    }
+
+    /** Held while writing a block so that the blocks of concurrent executions do not interleave */
+    private static final Object FLUSH_LOCK = new Object();
+
+    private final Logger delegate;
+    private List<Entry> entries = new ArrayList<>();
+    private final int level;
+
+    BufferedLogger(Logger delegate) {
+        super(delegate.getName());
+        this.delegate = delegate;
+        if (delegate.isTraceEnabled()) {
+            this.level = TRACE;
+        } else if (delegate.isDebugEnabled()) {
+            this.level = DEBUG;
+        } else if (delegate.isInfoEnabled()) {
+            this.level = INFO;
+        } else if (delegate.isWarnEnabled()) {
+            this.level = WARN;
+        } else {
+            this.level = ERROR;
+        }
+    }
+
+    /**
+     * Removes the messages collected so far from this buffer so that they can be {@link #attach(List) attached} again
+     * later, e.g. when the file they are about gets processed.
+     *
+     * @return the messages collected since the last {@link #flush()} or {@link #detach()} or {@code null} if there
+     *         are none
+     */
+    List<Entry> detach() {
+        synchronized (this) {
+            if (entries.isEmpty()) {
+                return null;
+            }
+            final List<Entry> result = entries;
+            entries = new ArrayList<>();
+            return result;
+        }
+    }
+
+    /**
+     * Appends the given messages to this buffer as if they were logged just now.
+     *
+     * @param detached the messages returned by some earlier {@link #detach()}; may be {@code null}
+     */
+    void attach(List<Entry> detached) {
+        if (detached != null) {
+            synchronized (this) {
+                entries.addAll(detached);
+            }
+        }
+    }
+
+    /**
+     * Passes the messages collected so far to the underlying {@link Logger} in the order they were logged.
+     */
+    void flush() {
+        final List<Entry> block;
+        synchronized (this) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            block = entries;
+            entries = new ArrayList<>();
+        }
+        synchronized (FLUSH_LOCK) {
+            for (Entry entry : block) {
+                switch (entry.level) {
+                    case TRACE:
+                        delegate.trace(entry.messagePattern, entry.arguments);
+                        break;
+                    case DEBUG:
+                        delegate.debug(entry.messagePattern, entry.arguments);
+                        break;
+                    case INFO:
+                        delegate.info(entry.messagePattern, entry.arguments);
+                        break;
+                    case WARN:
+                        delegate.warn(entry.messagePattern, entry.arguments);
+                        break;
+                    case ERROR:
+                        delegate.error(entry.messagePattern, entry.arguments);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected level " + entry.level);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void handle(int level, String messagePattern, Object[] arguments) {
+        synchronized (this) {
+            entries.add(new Entry(level, messagePattern, arguments));
+        }
+    }
+
+    @Override
+    protected boolean isEnabled(int level) {
+        return level >= this.level;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.core.model.PropertyType;
+import org.ec4j.lint.api.Linter;
+import org.ec4j.linters.TextLinter;
+import org.ec4j.linters.XmlLinter;
+
+/**
+ * Keeps track of the {@code .editorconfig} {@link PropertyType}s consumed by individual {@link Linter}s so that
+ * {@link Linter}s that would have nothing to check in a given file can be skipped.
+ * <p>
+ * The {@link Linter} interface itself does not expose the properties a {@link Linter} consumes, hence they are known
+ * here for the {@link Linter}s shipped with the plugin and can be set via {@link LinterConfig#getProperties()} for any
+ * other {@link Linter}. {@link Linter}s whose properties are not known are assumed to consume any property.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class ConsumedProperties {
+
+    /** The number of {@link #linterSets} to keep; there are only a few unless the linters have very specific includes */
+    private static final int MAX_LINTER_SETS = 64;
+
+    /**
+     * {@link TextLinter} reports files that cannot be decoded using the {@code charset} set in {@code .editorconfig}
+     * hence it consumes {@link PropertyType#charset} too.
+     */
+    private static final Map<String, Set<String>> BUILT_IN;
+    static {
+        Map<String, Set<String>> m = new HashMap<>();
+        m.put(TextLinter.class.getName(), names(PropertyType.charset, PropertyType.end_of_line,
+                PropertyType.trim_trailing_whitespace, PropertyType.insert_final_newline));
+        m.put(XmlLinter.class.getName(), names(PropertyType.indent_style, PropertyType.indent_size));
+        BUILT_IN = Collections.unmodifiableMap(m);
+    }
+
+    private static Set<String> names(PropertyType<?>... types) {
+        Set<String> result = new LinkedHashSet<>();
+        for (PropertyType<?> type : types) {
+            result.add(type.getName());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @param linters the {@link LinterConfig}s possibly overriding the properties consumed by some {@link Linter}s
+     * @return a new {@link ConsumedProperties}
+     */
+    static ConsumedProperties of(List<LinterConfig> linters) {
+        final Map<String, Set<String>> byClassName = new HashMap<>(BUILT_IN);
+        if (linters != null) {
+            for (LinterConfig linter : linters) {
+                final String[] properties = linter.getProperties();
+                if (properties != null && linter.isEnabled()) {
+                    byClassName.put(linter.getClassName(),
+                            Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(properties))));
+                }
+            }
+        }
+        return new ConsumedProperties(byClassName);
+    }
+
+    private final Map<String, Set<String>> byClassName;
+    /** The distinct results of {@link #retainConsuming(List, ResourceProperties)} so far */
+    private final List<List<Linter>> linterSets = new ArrayList<>();
+
+    ConsumedProperties(Map<String, Set<String>> byClassName) {
+        this.byClassName = byClassName;
+    }
+
+    /**
+     * @param linter the {@link Linter} to check
+     * @param properties the {@link ResourceProperties} of some file
+     * @return {@code true} if the given {@code linter} consumes at least one of the given {@code properties};
+     *         {@code false} otherwise
+     */
+    boolean consumesAny(Linter linter, ResourceProperties properties) {
+        final Set<String> consumed = byClassName.get(linter.getClass().getName());
+        if (consumed == null) {
+            return true;
+        }
+        for (String name : consumed) {
+            if (properties.getProperties().containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param linters the {@link Linter}s to filter
+     * @param properties the {@link ResourceProperties} of some file
+     * @return the sublist of the given {@code linters} that consume at least one of the given {@code properties}; equal
+     *         sublists are returned as the same instance, so that the files sharing a set of {@link Linter}s do not
+     *         hold a list each. The returned list must not be modified.
+     */
+    List<Linter> retainConsuming(List<Linter> linters, ResourceProperties properties) {
+        if (linters.size() > Long.SIZE) {
+            final List<Linter> result = new ArrayList<>(linters.size());
+            for (Linter linter : linters) {
+                if (consumesAny(linter, properties)) {
+                    result.add(linter);
+                }
+            }
+            return result;
+        }
+        long retained = 0;
+        for (int i = 0; i < linters.size(); i++) {
+            if (consumesAny(linters.get(i), properties)) {
+                retained |= 1L << i;
+            }
+        }
+        for (List<Linter> linterSet : linterSets) {
+            if (equals(linterSet, linters, retained)) {
+                return linterSet;
+            }
+        }
+        final List<Linter> result = new ArrayList<>(Long.bitCount(retained));
+        for (int i = 0; i < linters.size(); i++) {
+            if ((retained & (1L << i)) != 0) {
+                result.add(linters.get(i));
+            }
+        }
+        if (linterSets.size() < MAX_LINTER_SETS) {
+            linterSets.add(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true} if {@code linterSet} contains the same {@link Linter}s as the sublist of {@code linters}
+     *         given by the bits of {@code retained}
+     */
+    private static boolean equals(List<Linter> linterSet, List<Linter> linters, long retained) {
+        if (linterSet.size() != Long.bitCount(retained)) {
+            return false;
+        }
+        int j = 0;
+        for (int i = 0; i < linters.size(); i++) {
+            if ((retained & (1L << i)) != 0 && linterSet.get(j++) != linters.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ec4j.lint.api.FormatException;
+import org.ec4j.lint.api.FormattingHandler;
+import org.ec4j.lint.api.ViolationCollector;
+import org.ec4j.lint.api.ViolationHandler;
+import org.slf4j.Logger;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * A command line entry point running the same {@link EditorConfigEngine} as {@code editorconfig:check} and
+ * {@code editorconfig:format} without starting Maven. Meant for git hooks and other places where the startup time of
+ * Maven would dominate.
+ * <p>
+ * The options are named after the parameters of {@code EditorConfigCheckMojo} and {@code EditorConfigFormatMojo}, see
+ * {@link #USAGE}. The class does not use reflection, class path scanning aside, and does not initialize anything
+ * eagerly, so that it benefits fully from an application class data sharing archive.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class EditorConfigCli {
+
+    /**
+     * A SLF4J {@link Logger} writing to {@link PrintStream}s in the format Maven uses on the console. Installing a SLF4J
+     * binding would cost more startup time than this.
+     */
+    static class ConsoleLogger extends AbstractSlf4jLogger {
+        private final PrintStream err;
+        private final int level;
+        private final PrintStream out;
+
+        /**
+         * @param level one of {@link #TRACE}, {@link #DEBUG}, {@link #INFO}, {@link #WARN} and {@link #ERROR}
+         * @param out the stream for messages below {@link #WARN}
+         * @param err the stream for {@link #WARN} and {@link #ERROR} messages
+         */
+        ConsoleLogger(int level, PrintStream out, PrintStream err) {
+            super(EditorConfigCli.class.getName());
+            this.level = level;
+            this.out = out;
+            this.err = err;
+        }
+
+        @Override
+        protected void handle(int level, String messagePattern, Object[] arguments) {
+            final PrintStream stream = level >= WARN ? err : out;
+            final FormattingTuple message = MessageFormatter.arrayFormat(messagePattern, arguments);
+            stream.println("[" + levelName(level) + "] " + message.getMessage());
+            if (message.getThrowable() != null) {
+                message.getThrowable().printStackTrace(stream);
+            }
+        }
+
+        @Override
+        protected boolean isEnabled(int level) {
+            return level >= this.level;
+        }
+    }
+
+    /** The exit code if there are errors other than formatting violations, such as an invalid option */
+    static final int EXIT_ERROR = 2;
+
+    /** The exit code if no violations were found by {@code check} or if {@code format} or {@code fix} succeeded */
+    static final int EXIT_OK = 0;
+
+    /**
+     * The exit code if {@code check} found formatting violations or if {@code fix} found violations it could not fix
+     */
+    static final int EXIT_VIOLATIONS = 1;
+
+    static final String USAGE = "Usage: java -jar editorconfig-cli.jar [check|format|fix] [options]\n" //
+            + "\n" //
+            + "Checks or fixes whether the files under the current directory comply with .editorconfig rules.\n" //
+            + "fix formats the files and verifies the result in the same run.\n" //
+            + "\n" //
+            + "Options (see the parameters of editorconfig:check and editorconfig:format for details):\n" //
+            + "  --basedir=<dir>                       the directory to process; default: current directory\n" //
+            + "  --includes=<pattern>[,<pattern>...]   default: **\n" //
+            + "  --excludes=<pattern>[,<pattern>...]\n" //
+            + "  --excludesFile=<file>\n" //
+            + "  --excludeNonSourceFiles[=true|false]  default: true\n" //
+            + "  --filesFrom=<file>|-\n" //
+            + "  --encoding=<charset>                  default: UTF-8\n" //
+            + "  --linter=<className>                  add a linter\n" //
+            + "  --disableLinter=<id>                  remove a linter, usually given by its class name\n" //
+            + "  --addLintersFromClassPath[=true|false] default: true\n" //
+            + "  --failOnNoMatchingProperties[=true|false] default: true\n" //
+            + "  --failOnFormatViolation[=true|false]  check only; default: true\n" //
+            + "  --backup[=true|false]                 format and fix only; default: false\n" //
+            + "  --backupSuffix=<suffix>               format and fix only; default: .bak\n" //
+            + "  --maxFileSize=<bytes>                 skip larger files; default: 0 (no limit)\n" //
+            + "  --maxFormatPasses=<n>                 default: 10\n" //
+            + "  --perFileTimeout=<ms>                 abandon slower files; default: 0 (no limit)\n" //
+            + "  --prescreen[=true|false]              default: true\n" //
+            + "  --propertiesCacheSize=<n>             default: 1024\n" //
+            + "  --readAheadBytes=<n>                  default: 16777216\n" //
+            + "  --readThreads=<n>                     default: 2\n" //
+            + "  --debug, --trace, --quiet             log level; default: info\n" //
+            + "  --help\n" //
+            + "\n" //
+            + "Exit codes: " + EXIT_OK + " success, " + EXIT_VIOLATIONS + " formatting violations found, " + EXIT_ERROR
+            + " other errors\n";
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    private static boolean parseBoolean(String option, String value) {
+        if (value == null || "true".equals(value)) {
+            return true;
+        } else if ("false".equals(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected true or false as a value of --" + option + "; found '" + value + "'");
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(required(option, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an integer as a value of --" + option + "; found '" + value + "'");
+        }
+    }
+
+    private static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(required(option, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an integer as a value of --" + option + "; found '" + value + "'");
+        }
+    }
+
+    private static String required(String option, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("--" + option + " requires a value");
+        }
+        return value;
+    }
+
+    /**
+     * Parses the given command line arguments and runs the {@link EditorConfigEngine}.
+     *
+     * @param args the command line arguments
+     * @param out where to write the log messages up to {@code INFO}
+     * @param err where to write warnings, errors and usage errors
+     * @return the exit code, one of {@link #EXIT_OK}, {@link #EXIT_VIOLATIONS} and {@link #EXIT_ERROR}
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        /* The log level is needed before the engine can be created */
+        int level = ConsoleLogger.INFO;
+        for (String arg : args) {
+            if ("--debug".equals(arg)) {
+                level = ConsoleLogger.DEBUG;
+            } else if ("--trace".equals(arg)) {
+                level = ConsoleLogger.TRACE;
+            } else if ("--quiet".equals(arg)) {
+                level = ConsoleLogger.WARN;
+            }
+        }
+        final Logger log = new ConsoleLogger(level, out, err);
+
+        String goal = "check";
+        final EditorConfigEngine engine = new EditorConfigEngine(log);
+        engine.basedir = Paths.get("").toAbsolutePath();
+        engine.encoding = "UTF-8";
+        final List<String> includes = new ArrayList<>();
+        boolean failOnFormatViolation = true;
+        boolean backup = false;
+        String backupSuffix = ".bak";
+        try {
+            for (int i = 0; i < args.length; i++) {
+                final String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    if (i == 0 && ("check".equals(arg) || "format".equals(arg) || "fix".equals(arg))) {
+                        goal = arg;
+                        continue;
+                    }
+                    throw new IllegalArgumentException("Unexpected argument '" + arg + "'");
+                }
+                final int eq = arg.indexOf('=');
+                final String option = eq >= 0 ? arg.substring(2, eq) : arg.substring(2);
+                final String value = eq >= 0 ? arg.substring(eq + 1) : null;
+                switch (option) {
+                    case "help":
+                        out.print(USAGE);
+                        return EXIT_OK;
+                    case "debug":
+                    case "trace":
+                    case "quiet":
+                        break;
+                    case "basedir":
+                        engine.basedir = Paths.get(required(option, value)).toAbsolutePath();
+                        break;
+                    case "includes":
+                        includes.addAll(Arrays.asList(required(option, value).split(",")));
+                        break;
+                    case "excludes":
+                        engine.excludes.addAll(Arrays.asList(required(option, value).split(",")));
+                        break;
+                    case "excludesFile":
+                        engine.excludesFile = new File(required(option, value));
+                        break;
+                    case "excludeNonSourceFiles":
+                        engine.excludeNonSourceFiles = parseBoolean(option, value);
+                        break;
+                    case "filesFrom":
+                        engine.filesFrom = required(option, value);
+                        break;
+                    case "encoding":
+                        engine.encoding = required(option, value);
+                        break;
+                    case "linter": {
+                        final LinterConfig linter = new LinterConfig();
+                        linter.setClassName(required(option, value));
+                        engine.linters.add(linter);
+                        break;
+                    }
+                    case "disableLinter":
+                        engine.linters.add(new LinterConfig(required(option, value), false));
+                        break;
+                    case "addLintersFromClassPath":
+                        engine.addLintersFromClassPath = parseBoolean(option, value);
+                        break;
+                    case "failOnNoMatchingProperties":
+                        engine.failOnNoMatchingProperties = parseBoolean(option, value);
+                        break;
+                    case "failOnFormatViolation":
+                        failOnFormatViolation = parseBoolean(option, value);
+                        break;
+                    case "backup":
+                        backup = parseBoolean(option, value);
+                        break;
+                    case "backupSuffix":
+                        backupSuffix = required(option, value);
+                        break;
+                    case "maxFileSize":
+                        engine.maxFileSize = parseLong(option, value);
+                        break;
+                    case "maxFormatPasses":
+                        engine.maxFormatPasses = parseInt(option, value);
+                        break;
+                    case "perFileTimeout":
+                        engine.perFileTimeout = parseLong(option, value);
+                        break;
+                    case "prescreen":
+                        engine.prescreen = parseBoolean(option, value);
+                        break;
+                    case "propertiesCacheSize":
+                        engine.propertiesCacheSize = parseInt(option, value);
+                        break;
+                    case "readAheadBytes":
+                        engine.readAheadBytes = parseLong(option, value);
+                        break;
+                    case "readThreads":
+                        engine.readThreads = parseInt(option, value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option '" + arg + "'");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println();
+            err.print(USAGE);
+            return EXIT_ERROR;
+        }
+        if (!includes.isEmpty()) {
+            engine.includes = includes;
+        }
+
+        final Slf4jLintLogger lintLogger = new Slf4jLintLogger(engine.getLog());
+        final ViolationHandler handler;
+        if ("format".equals(goal)) {
+            handler = new FormattingHandler(backup, backupSuffix, lintLogger);
+        } else if ("fix".equals(goal)) {
+            handler = new FixingHandler(new FormattingHandler(backup, backupSuffix, lintLogger), lintLogger);
+        } else {
+            handler = new ViolationCollector(failOnFormatViolation, "java -jar editorconfig-cli.jar format",
+                    lintLogger);
+        }
+        try {
+            engine.run(handler);
+            return EXIT_OK;
+        } catch (FormatException e) {
+            err.println();
+            err.println(e.getMessage());
+            return EXIT_VIOLATIONS;
+        } catch (IOException | RuntimeException e) {
+            log.error(e.getMessage(), e);
+            return EXIT_ERROR;
+        }
+    }
+}
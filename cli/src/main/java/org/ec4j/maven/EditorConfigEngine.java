@@ -0,0 +1,685 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.ec4j.core.Resource.Charsets;
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.core.ResourcePropertiesService;
+import org.ec4j.core.model.PropertyType;
+import org.ec4j.lint.api.Constants;
+import org.ec4j.lint.api.FormatException;
+import org.ec4j.lint.api.Linter;
+import org.ec4j.lint.api.LinterRegistry;
+import org.ec4j.lint.api.Resource;
+import org.ec4j.lint.api.ViolationHandler;
+import org.ec4j.linters.TextLinter;
+import org.ec4j.maven.TextDecoder.Decoding;
+import org.slf4j.Logger;
+
+/**
+ * Scans a directory tree, resolves the {@code .editorconfig} properties of the files found and passes the files to
+ * the applicable {@link Linter}s. This is all the {@code AbstractEditorConfigMojo}s do, but without depending on any
+ * Maven API so that the same can be run from {@link EditorConfigCli}.
+ * <p>
+ * The fields have the same meaning as the equally named parameters of {@code AbstractEditorConfigMojo}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class EditorConfigEngine {
+
+    boolean addLintersFromClassPath = true;
+    Path basedir;
+    /** Must not be {@code null} */
+    String encoding;
+    boolean excludeNonSourceFiles = true;
+    List<String> excludes = new ArrayList<>();
+    File excludesFile;
+    boolean failOnNoMatchingProperties = true;
+    String filesFrom;
+    /**
+     * The directory to resolve a relative {@link #filesFrom} and the relative paths listed in it against; if
+     * {@code null}, {@link #basedir} is used
+     */
+    Path filesFromBase;
+    /**
+     * The standard input if the caller has read it already, so that several engines can share it; if {@code null} and
+     * {@link #filesFrom} is {@code -}, the standard input is read by {@link #run(ViolationHandler)}
+     */
+    byte[] filesFromStdin;
+    List<String> includes = Arrays.asList("**");
+    List<LinterConfig> linters = new ArrayList<>();
+    private final BufferedLogger log;
+    long maxFileSize = 0;
+    int maxFormatPasses = 10;
+    boolean prescreen = true;
+    /** Directories to exclude together with their content */
+    List<String> modules = new ArrayList<>();
+    long perFileTimeout = 0;
+    int propertiesCacheSize = 1024;
+    long readAheadBytes = 16 * 1024 * 1024;
+    int readThreads = 2;
+    /**
+     * The directories to walk instead of the whole {@link #basedir}, together with the files directly in
+     * {@link #basedir}; relative paths are resolved against {@link #basedir}. If {@code null}, all of {@link #basedir}
+     * is walked.
+     */
+    List<Path> roots;
+
+    /** The result of {@code Charsets.forName(encoding)}; set by {@link #run(ViolationHandler)} */
+    private Charset charset;
+
+    EditorConfigEngine(Logger log) {
+        this.log = new BufferedLogger(log);
+    }
+
+    /**
+     * @return the {@link Logger} the {@link ViolationHandler} passed to {@link #run(ViolationHandler)} should use, so
+     *         that its messages are passed to the {@link Logger} given in the constructor together with the messages of
+     *         this engine, file by file
+     */
+    Logger getLog() {
+        return log;
+    }
+
+    private LinterRegistry buildLinterRegistry() {
+        final LinterRegistry.Builder linterRegistryBuilder = LinterRegistry.builder()
+                .log(new Slf4jLintLogger(log));
+
+        if (addLintersFromClassPath) {
+            linterRegistryBuilder.scan(getClass().getClassLoader());
+        }
+
+        if (linters != null && !linters.isEmpty()) {
+            for (LinterConfig linter : linters) {
+                if (linter.isEnabled()) {
+                    linterRegistryBuilder.entry(linter.getId(), linter.getClassName(), this.getClass().getClassLoader(),
+                            linter.getIncludes(), linter.getExcludes(), linter.isUseDefaultIncludesAndExcludes());
+                } else {
+                    linterRegistryBuilder.removeEntry(linter.getId());
+                }
+            }
+        }
+        return linterRegistryBuilder.build();
+    }
+
+    /**
+     * A file whose properties were resolved and whose text is being read ahead of linting.
+     */
+    static class PendingFile {
+        private final Path absFile;
+        private final Charset encoding;
+        private final Path file;
+        private final List<Linter> linters;
+        /** The messages logged when this file was scheduled or {@code null} */
+        private final List<BufferedLogger.Entry> log;
+        private final ResourceProperties properties;
+        private final ReadAhead.PendingText text;
+
+        PendingFile(Path file, Path absFile, ResourceProperties properties, List<Linter> linters, Charset encoding,
+                ReadAhead.PendingText text, List<BufferedLogger.Entry> log) {
+            this.file = file;
+            this.log = log;
+            this.absFile = absFile;
+            this.properties = properties;
+            this.linters = linters;
+            this.encoding = encoding;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Processes the files under {@link #basedir} using the given {@code handler}.
+     *
+     * @param handler the {@link ViolationHandler} to report the violations to
+     * @throws IOException on errors reading or writing files
+     * @throws FormatException if there are violations the {@code handler} wants to fail on
+     * @throws IllegalArgumentException if some of the fields has an invalid value
+     * @throws IllegalStateException if fixing the violations in a file did not converge in {@link #maxFormatPasses}
+     */
+    void run(ViolationHandler handler) throws IOException {
+        try {
+            lint(handler);
+        } finally {
+            log.flush();
+        }
+    }
+
+    private void lint(ViolationHandler handler) throws IOException {
+        if (maxFormatPasses < 1) {
+            throw new IllegalArgumentException("maxFormatPasses must be at least 1; found " + maxFormatPasses);
+        }
+        this.charset = Charsets.forName(encoding);
+
+        LinterRegistry linterRegistry = buildLinterRegistry();
+        final ConsumedProperties consumedProperties = ConsumedProperties.of(linters);
+        final Object scanEvent = FlightRecorderEvents.beginDirectoryScan();
+        final PathTrie includedFiles = filesFrom != null ? readIncludedFiles() : scanIncludedFiles();
+        FlightRecorderEvents.commitDirectoryScan(scanEvent, basedir, includedFiles.size());
+
+        final TextDecoder textDecoder = new TextDecoder(log);
+        try (ReadAhead readAhead = new ReadAhead(textDecoder, readAheadBytes, readThreads);
+                LinterWatchdog watchdog = perFileTimeout > 0 ? new LinterWatchdog() : null) {
+            final LruCache cache = new LruCache(propertiesCacheSize);
+            final PropertiesResolver propertiesResolver = new PropertiesResolver(
+                    ResourcePropertiesService.builder().cache(cache).build());
+            handler.startFiles();
+            boolean propertyMatched = false;
+            /* passCounts[n] is the number of files that were linted n times */
+            int[] passCounts = new int[3];
+            final Deque<PendingFile> pendingFiles = new ArrayDeque<>();
+            final List<Path> oversizedFiles = new ArrayList<>();
+            final List<Path> timedOutFiles = new ArrayList<>();
+            int next = 0;
+            while (next < includedFiles.size() || !pendingFiles.isEmpty()) {
+                /* Resolve the properties and schedule reading of as many files as the read ahead limit allows */
+                while (next < includedFiles.size() && readAhead.hasCapacity(pendingFiles.isEmpty())) {
+                    final Path file = Paths.get(includedFiles.get(next++)); // relative to basedir
+                    final Path absFile = basedir.resolve(file);
+                    log.debug("Processing file '{}'", file);
+                    final Object queryEvent = FlightRecorderEvents.beginQueryProperties();
+                    final ResourceProperties editorConfigProperties = propertiesResolver.queryProperties(absFile,
+                            charset);
+                    FlightRecorderEvents.commitQueryProperties(queryEvent, file,
+                            editorConfigProperties.getProperties().size());
+                    if (!editorConfigProperties.getProperties().isEmpty()) {
+                        propertyMatched = true;
+                        final List<Linter> filteredLinters = consumedProperties
+                                .retainConsuming(linterRegistry.filter(file), editorConfigProperties);
+                        if (filteredLinters.isEmpty()) {
+                            log.debug("Skipping file '{}': no linter consumes any of its .editorconfig properties",
+                                    file);
+                            continue;
+                        }
+                        final long size = Files.size(absFile);
+                        if (maxFileSize > 0 && size > maxFileSize) {
+                            log.warn("Skipping file '{}': its size {} bytes exceeds maxFileSize {} bytes", file, size,
+                                    maxFileSize);
+                            oversizedFiles.add(file);
+                            continue;
+                        }
+                        final Decoding decoding = textDecoder
+                                .decoding(editorConfigProperties.getValue(PropertyType.charset, encoding, true));
+                        final TextPrescreen textPrescreen = prescreen && containsTextLinter(filteredLinters)
+                                ? TextPrescreen.of(editorConfigProperties)
+                                : null;
+                        pendingFiles.add(new PendingFile(file, absFile, editorConfigProperties, filteredLinters,
+                                decoding.getCharset(), readAhead.submit(file, absFile, size, decoding, textPrescreen),
+                                log.detach()));
+                    }
+                }
+
+                final PendingFile pendingFile = pendingFiles.poll();
+                if (pendingFile != null) {
+                    /* Keep the messages logged when the file was scheduled together with those logged while linting */
+                    log.attach(pendingFile.log);
+                    final Path file = pendingFile.file;
+                    if (log.isTraceEnabled()) {
+                        log.trace("Creating a {} for path '{}' with encoding '{}'", Resource.class.getSimpleName(), file,
+                                pendingFile.encoding);
+                    }
+                    final String text = readAhead.await(pendingFile.text);
+                    final Resource resource = new Resource(pendingFile.absFile, file, pendingFile.encoding, text);
+                    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(perFileTimeout);
+                    /* The texts the file had before each pass that ended with RECHECK */
+                    List<String> previousTexts = null;
+                    int pass = 0;
+                    ViolationHandler.ReturnState state = ViolationHandler.ReturnState.RECHECK;
+                    while (state != ViolationHandler.ReturnState.FINISHED) {
+                        pass++;
+                        /* The pre-screen has seen the original content only, the later passes lint the fixed one */
+                        final boolean clean = pass == 1 && pendingFile.text.isClean();
+                        if (clean && pendingFile.linters.size() == 1) {
+                            handler.startFile(resource);
+                        }
+                        final LinterWatchdog.ViolationBuffer buffer = watchdog != null
+                                ? new LinterWatchdog.ViolationBuffer(handler)
+                                : null;
+                        Linter timedOutLinter = null;
+                        for (Linter linter : pendingFile.linters) {
+                            if (clean && linter.getClass() == TextLinter.class) {
+                                log.trace("Skipping linter {} for file '{}': no violations found by the pre-screen",
+                                        TextLinter.class.getName(), file);
+                                continue;
+                            }
+                            if (log.isTraceEnabled()) {
+                                log.trace("Processing file '{}' using linter {}", file, linter.getClass().getName());
+                            }
+                            final Object lintEvent = FlightRecorderEvents.beginLint();
+                            if (watchdog == null) {
+                                handler.startFile(resource);
+                                linter.process(resource, pendingFile.properties, handler);
+                            } else if (!watchdog.process(linter, resource, pendingFile.properties, buffer, deadline)) {
+                                timedOutLinter = linter;
+                                break;
+                            }
+                            FlightRecorderEvents.commitLint(lintEvent, linter.getClass().getName(), file,
+                                    pendingFile.text.getSize());
+                        }
+                        if (timedOutLinter != null) {
+                            log.warn("Abandoning file '{}': linter {} did not finish within perFileTimeout {} ms", file,
+                                    timedOutLinter.getClass().getName(), perFileTimeout);
+                            timedOutFiles.add(file);
+                            break;
+                        }
+                        if (buffer != null) {
+                            /*
+                             * The handler learns about the file only after all linters finished in time so that an
+                             * abandoned file leaves no per-file state behind in the handler
+                             */
+                            handler.startFile(resource);
+                            buffer.flush();
+                        }
+                        final Object endFileEvent = FlightRecorderEvents.beginEndFile();
+                        state = handler.endFile();
+                        FlightRecorderEvents.commitEndFile(endFileEvent, file, handler.getClass().getName(),
+                                state.name(), pass);
+                        if (state == ViolationHandler.ReturnState.RECHECK && !isVerifying(handler)) {
+                            if (previousTexts == null) {
+                                previousTexts = new ArrayList<>();
+                                previousTexts.add(text);
+                            }
+                            final String fixedText = resource.getText();
+                            if (previousTexts.contains(fixedText)) {
+                                throw new IllegalStateException(String.format(
+                                        "Fixing formatting violations in file '%s' brought it back to the state it had before pass %d; the linters %s seem to undo each other's fixes",
+                                        file, previousTexts.indexOf(fixedText) + 1, linterNames(pendingFile.linters)));
+                            } else if (pass >= maxFormatPasses) {
+                                throw new IllegalStateException(String.format(
+                                        "File '%s' still has formatting violations after %d %s of the linters %s; you may want to increase maxFormatPasses",
+                                        file, pass, pass == 1 ? "pass" : "passes", linterNames(pendingFile.linters)));
+                            }
+                            previousTexts.add(fixedText);
+                        }
+                    }
+                    if (state == ViolationHandler.ReturnState.FINISHED) {
+                        passCounts = count(passCounts, pass);
+                    }
+                    log.flush();
+                }
+            }
+            if (log.isDebugEnabled()) {
+                for (int i = 1; i < passCounts.length; i++) {
+                    if (passCounts[i] > 0) {
+                        log.debug("{} {} linted in {} {}", passCounts[i], passCounts[i] == 1 ? "file" : "files", i,
+                                i == 1 ? "pass" : "passes");
+                    }
+                }
+            }
+            if (!propertyMatched) {
+                if (failOnNoMatchingProperties) {
+                    log.error("No .editorconfig properties applicable for files under '{}'", basedir);
+                } else {
+                    log.warn("No .editorconfig properties applicable for files under '{}'", basedir);
+                }
+            }
+            if (!oversizedFiles.isEmpty()) {
+                log.warn("Skipped {} {} larger than maxFileSize {} bytes: {}", oversizedFiles.size(),
+                        oversizedFiles.size() == 1 ? "file" : "files", maxFileSize, oversizedFiles);
+            }
+            if (!timedOutFiles.isEmpty()) {
+                log.warn("Abandoned {} {} not linted within perFileTimeout {} ms: {}", timedOutFiles.size(),
+                        timedOutFiles.size() == 1 ? "file" : "files", perFileTimeout, timedOutFiles);
+            }
+            if (watchdog != null && LinterWatchdog.getAbandonedCount() > 0) {
+                final int count = LinterWatchdog.getAbandonedCount();
+                log.warn(
+                        "{} abandoned {} still running in this JVM; in a long-lived JVM such as the mvnd daemon, {} consuming resources until {} on {} own",
+                        count, count == 1 ? "linter is" : "linters are", count == 1 ? "it keeps" : "they keep",
+                        count == 1 ? "it returns" : "they return", count == 1 ? "its" : "their");
+            }
+            if (cache.getEvictions() > 0) {
+                /* Evictions mean some .editorconfig files were parsed more than once */
+                log.info(
+                        ".editorconfig cache: {} {}, {} {}, {} {}; consider increasing propertiesCacheSize {} to avoid parsing the same .editorconfig files repeatedly",
+                        cache.getHits(), cache.getHits() == 1 ? "hit" : "hits", cache.getMisses(),
+                        cache.getMisses() == 1 ? "miss" : "misses", cache.getEvictions(),
+                        cache.getEvictions() == 1 ? "eviction" : "evictions", propertiesCacheSize);
+            } else {
+                log.debug(".editorconfig cache: {} {}, {} {}, {} {}", cache.getHits(),
+                        cache.getHits() == 1 ? "hit" : "hits", cache.getMisses(),
+                        cache.getMisses() == 1 ? "miss" : "misses", cache.getEvictions(),
+                        cache.getEvictions() == 1 ? "eviction" : "evictions");
+            }
+            handler.endFiles();
+        }
+    }
+
+    private static boolean containsTextLinter(List<Linter> linters) {
+        for (Linter linter : linters) {
+            if (linter.getClass() == TextLinter.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param handler the {@link ViolationHandler} that has just returned {@link ViolationHandler.ReturnState#RECHECK}
+     * @return {@code true} if the next pass only verifies the fixes that {@code handler} has stored; such a pass does
+     *         not count against {@link #maxFormatPasses}
+     */
+    private static boolean isVerifying(ViolationHandler handler) {
+        return handler instanceof FixingHandler && ((FixingHandler) handler).isVerifying();
+    }
+
+    private static int[] count(int[] counts, int index) {
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + 1);
+        }
+        counts[index]++;
+        return counts;
+    }
+
+    private static String linterNames(List<Linter> linters) {
+        final StringBuilder result = new StringBuilder();
+        for (Linter linter : linters) {
+            result.append(result.length() == 0 ? "" : ", ").append(linter.getClass().getName());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Walks {@link #basedir} and collects the files matching {@link #includes} and not matching the excludes. Unlike
+     * {@link org.apache.maven.shared.utils.io.DirectoryScanner}, the patterns are {@link PathPatterns#compile(String...)
+     * compiled} so that the cost per
+     * path does not grow with the number of patterns, and directories that are excluded as a whole or cannot contain
+     * any included file are not entered at all.
+     *
+     * @return a {@link PathTrie} of the included files relative to {@link #basedir}
+     * @throws IOException on errors walking {@link #basedir}
+     */
+    private PathTrie scanIncludedFiles() throws IOException {
+        final PathPatterns includePatterns = PathPatterns
+                .compile(normalizePatterns(appendSanitized(includes, new LinkedHashSet<String>())));
+        final PathPatterns excludePatterns = PathPatterns.compile(normalizePatterns(buildExcludes()));
+        final PathTrie result = new PathTrie(basedir.getFileSystem().getSeparator());
+        final PathTrie.WalkCursor cursor = result.walkCursor();
+        final SimpleFileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(basedir)) {
+                    final String relPath = basedir.relativize(dir).toString();
+                    if (excludePatterns.matchesAllUnder(relPath) || !includePatterns.mayMatchUnder(relPath)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    cursor.enter(dir.getFileName().toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (e != null) {
+                    log.debug("Ignoring the rest of directory '{}': {}", dir, e.toString());
+                }
+                if (!dir.equals(basedir)) {
+                    cursor.leave();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    final String relPath = basedir.relativize(file).toString();
+                    if (includePatterns.matches(relPath) && !excludePatterns.matches(relPath)) {
+                        cursor.addFile(file.getFileName().toString());
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                /*
+                 * Directories are opened before preVisitDirectory() could skip them, so this is also called for
+                 * unreadable directories that are excluded anyway. Like DirectoryScanner, skip anything unreadable.
+                 */
+                if (e instanceof FileSystemLoopException) {
+                    log.debug("Ignoring a symbolic link loop at '{}'", file);
+                } else {
+                    log.debug("Ignoring '{}': {}", file, e.toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        };
+        final EnumSet<FileVisitOption> options = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+        final List<Path> relativeRoots = roots == null ? null : relativeRoots();
+        if (relativeRoots == null) {
+            Files.walkFileTree(basedir, options, Integer.MAX_VALUE, visitor);
+        } else {
+            /* The files directly in basedir; the directories are passed to visitFile() and ignored there */
+            Files.walkFileTree(basedir, options, 1, visitor);
+            for (Path root : relativeRoots) {
+                log.debug("Walking '{}'", root);
+                /* preVisitDirectory() enters the root itself */
+                final int parentCount = root.getNameCount() - 1;
+                for (int i = 0; i < parentCount; i++) {
+                    cursor.enter(root.getName(i).toString());
+                }
+                Files.walkFileTree(basedir.resolve(root), options, Integer.MAX_VALUE, visitor);
+                for (int i = 0; i < parentCount; i++) {
+                    cursor.leave();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the {@link #roots} relative to {@link #basedir}, leaving out those outside of {@link #basedir}, those
+     *         that are not directories and those nested in other roots; {@code null} if {@link #basedir} itself is one
+     *         of the {@link #roots}
+     */
+    private List<Path> relativeRoots() {
+        final Path normalizedBasedir = basedir.toAbsolutePath().normalize();
+        final Set<Path> candidates = new TreeSet<>();
+        for (Path root : roots) {
+            final Path absRoot = normalizedBasedir.resolve(root).normalize();
+            if (absRoot.equals(normalizedBasedir)) {
+                return null;
+            } else if (!absRoot.startsWith(normalizedBasedir)) {
+                log.debug("Ignoring root '{}': not under '{}'", root, normalizedBasedir);
+            } else if (!Files.isDirectory(absRoot)) {
+                log.debug("Ignoring root '{}': not a directory", root);
+            } else {
+                candidates.add(normalizedBasedir.relativize(absRoot));
+            }
+        }
+        /* A parent sorts before its children */
+        final List<Path> result = new ArrayList<>();
+        for (Path candidate : candidates) {
+            boolean nested = false;
+            for (Path root : result) {
+                if (candidate.startsWith(root)) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the user supplied {@link #excludes} preceded by {@link Constants#DEFAULT_EXCLUDES}, the content of
+     *         {@link #excludesFile} and the submodule directories as configured
+     */
+    private String[] buildExcludes() {
+        Set<String> excls = new LinkedHashSet<>();
+        if (excludeNonSourceFiles) {
+            excls.addAll(Constants.DEFAULT_EXCLUDES);
+        }
+
+        if (excludesFile != null) {
+            log.debug("Using excludesFile '{}'", excludesFile);
+            try {
+                try (BufferedReader reader = Files.newBufferedReader(excludesFile.toPath(), charset)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            excls.add(line);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading excludesFile '" + excludesFile + "'", e);
+            }
+        }
+
+        for (String module : modules) {
+            excls.add(module + "/**");
+        }
+        return appendSanitized(excludes, excls);
+    }
+
+    /**
+     * Reads the paths listed in {@link #filesFrom} and keeps those that are regular files under {@link #basedir}
+     * matching {@link #includes} and not matching the excludes. No directory is walked. The entries are taken
+     * verbatim, as file names may start or end with whitespace.
+     *
+     * @return a {@link PathTrie} of the included files relative to {@link #basedir}
+     */
+    private PathTrie readIncludedFiles() {
+        final Path base = (filesFromBase != null ? filesFromBase : basedir).toAbsolutePath().normalize();
+        final String content;
+        try {
+            if ("-".equals(filesFrom)) {
+                if (filesFromStdin != null) {
+                    content = new String(filesFromStdin, charset);
+                } else {
+                    log.debug("Reading the files to process from stdin");
+                    content = new String(readAll(System.in), charset);
+                }
+            } else {
+                final Path filesFromPath = base.resolve(filesFrom);
+                log.debug("Reading the files to process from '{}'", filesFromPath);
+                content = new String(Files.readAllBytes(filesFromPath), charset);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading filesFrom '" + filesFrom + "'", e);
+        }
+
+        final PathPatterns includePatterns = PathPatterns
+                .compile(normalizePatterns(appendSanitized(includes, new LinkedHashSet<String>())));
+        final PathPatterns excludePatterns = PathPatterns.compile(normalizePatterns(buildExcludes()));
+        final Set<String> result = new LinkedHashSet<>();
+        final Path normalizedBasedir = basedir.toAbsolutePath().normalize();
+        for (String entry : content.split(content.indexOf('\0') >= 0 ? "\0" : "\r?\n")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final Path absFile = base.resolve(entry).normalize();
+            if (!absFile.startsWith(normalizedBasedir)) {
+                log.debug("Ignoring '{}' from filesFrom: not under '{}'", entry, normalizedBasedir);
+                continue;
+            }
+            if (!Files.isRegularFile(absFile)) {
+                log.debug("Ignoring '{}' from filesFrom: not a regular file", entry);
+                continue;
+            }
+            final String relPath = normalizedBasedir.relativize(absFile).toString();
+            if (includePatterns.matches(relPath) && !excludePatterns.matches(relPath)) {
+                result.add(relPath);
+            }
+        }
+        final PathTrie trie = new PathTrie(basedir.getFileSystem().getSeparator());
+        for (String relPath : result) {
+            trie.add(relPath);
+        }
+        return trie;
+    }
+
+    /**
+     * Normalizes the given patterns the same way as
+     * {@link org.apache.maven.shared.utils.io.DirectoryScanner#setIncludes(String...)} does.
+     *
+     * @param patterns the patterns to normalize
+     * @return the normalized patterns
+     */
+    static String[] normalizePatterns(String[] patterns) {
+        final String[] result = new String[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i].trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+            if (pattern.endsWith(File.separator)) {
+                pattern += "**";
+            }
+            result[i] = pattern;
+        }
+        return result;
+    }
+
+    /**
+     * @param in the stream to read until its end
+     * @return the bytes read
+     * @throws IOException if the stream cannot be read
+     */
+    static byte[] readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+
+    static String[] appendSanitized(List<String> input, Collection<String> result) {
+        if (input == null || input.size() == 0) {
+            return result.toArray(new String[0]);
+        }
+
+        for (String item : input) {
+            if (item != null) {
+                item = item.trim();
+                if (!item.isEmpty()) {
+                    result.add(item);
+                }
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+}
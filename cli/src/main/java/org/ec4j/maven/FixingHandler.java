@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import org.ec4j.lint.api.FormatException;
+import org.ec4j.lint.api.FormattingHandler;
+import org.ec4j.lint.api.Logger;
+import org.ec4j.lint.api.Resource;
+import org.ec4j.lint.api.Violation;
+import org.ec4j.lint.api.ViolationHandler;
+
+/**
+ * A {@link ViolationHandler} fixing the violations using a {@link FormattingHandler} and verifying each file it has
+ * modified by linting it once more. Violations found in such a verification pass cannot be fixed automatically; they are
+ * reported like {@code editorconfig:check} does and they make {@link #endFiles()} throw a {@link FormatException}.
+ * <p>
+ * Files without violations are linted only once, files with violations typically twice, all within a single traversal
+ * of the file tree.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class FixingHandler implements ViolationHandler {
+
+    /** The file passed to the last {@link #startFile(Resource)} */
+    private Resource currentFile;
+    private final FormattingHandler formatter;
+    /** {@code true} if the current pass reported any violation */
+    private boolean hasViolations;
+    private final Logger log;
+    private int unfixableFileCount;
+    private int unfixableViolationCount;
+    private int verifiedFileCount;
+    /** {@code true} if the current pass is verifying the fixes made by the preceding one */
+    private boolean verifying;
+
+    FixingHandler(FormattingHandler formatter, Logger log) {
+        this.formatter = formatter;
+        this.log = log;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ReturnState endFile() {
+        final boolean hadViolations = hasViolations;
+        hasViolations = false;
+        if (verifying) {
+            verifying = false;
+            verifiedFileCount++;
+            if (hadViolations) {
+                unfixableFileCount++;
+            }
+            return ReturnState.FINISHED;
+        }
+        final ReturnState result = formatter.endFile();
+        if (result == ReturnState.FINISHED && hadViolations) {
+            /* The fixes were stored; lint the file once more to see whether they were sufficient */
+            verifying = true;
+            return ReturnState.RECHECK;
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endFiles() {
+        formatter.endFiles();
+        if (verifiedFileCount > 0) {
+            log.info("Verified {} fixed {}", verifiedFileCount, verifiedFileCount == 1 ? "file" : "files");
+        }
+        if (unfixableViolationCount > 0) {
+            throw new FormatException(String.format(
+                    "%d .editorconfig %s in %d %s could not be fixed automatically; see the errors above",
+                    unfixableViolationCount, unfixableViolationCount == 1 ? "violation" : "violations",
+                    unfixableFileCount, unfixableFileCount == 1 ? "file" : "files"));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Logger getLogger() {
+        return log;
+    }
+
+    /**
+     * @return {@code true} if the current pass is verifying the fixes stored by the preceding one
+     */
+    boolean isVerifying() {
+        return verifying;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(Violation violation) {
+        hasViolations = true;
+        if (verifying) {
+            unfixableViolationCount++;
+            log.error(violation.toString());
+        } else {
+            formatter.handle(violation);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void startFile(Resource resource) {
+        if (resource != currentFile) {
+            /* A file abandoned on timeout gets no endFile() call, so its pass may still look unfinished here */
+            currentFile = resource;
+            hasViolations = false;
+            verifying = false;
+        }
+        formatter.startFile(resource);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void startFiles() {
+        formatter.startFiles();
+        unfixableFileCount = 0;
+        unfixableViolationCount = 0;
+        verifiedFileCount = 0;
+    }
+}
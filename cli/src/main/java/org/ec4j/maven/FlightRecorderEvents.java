@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events emitted by the plugin, so that the time spent in scanning, property resolution, individual
+ * linters and storing formatted files can be told apart in JMC or {@code jfr print}.
+ * <p>
+ * The plugin supports Java 8 runtimes without {@code jdk.jfr}, hence the event classes are referenced only from within
+ * this class and only once {@link #AVAILABLE} is known to be {@code true} and some recording was started. The
+ * {@code begin*()} methods return an opaque token or {@code null} if the given event type is not being recorded; the
+ * token is to be passed to the respective {@code commit*()} method. When no recording is active, all this costs a couple
+ * of field reads and no allocation.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class FlightRecorderEvents {
+
+    private static final String CATEGORY = "EditorConfig Maven Plugin";
+
+    @Name("org.ec4j.maven.DirectoryScan")
+    @Label("Directory Scan")
+    @Category(CATEGORY)
+    @Description("Scanning the base directory for files matching includes and excludes")
+    static class DirectoryScanEvent extends Event {
+        @Label("Base Directory")
+        String basedir;
+
+        @Label("Included Files")
+        int includedFiles;
+    }
+
+    @Name("org.ec4j.maven.QueryProperties")
+    @Label("Query Properties")
+    @Category(CATEGORY)
+    @Description("Resolving the .editorconfig properties applicable to a file")
+    static class QueryPropertiesEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Property Count")
+        int propertyCount;
+    }
+
+    @Name("org.ec4j.maven.Lint")
+    @Label("Lint")
+    @Category(CATEGORY)
+    @Description("Processing a file by a single linter")
+    static class LintEvent extends Event {
+        @Label("Linter")
+        String linter;
+
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+    }
+
+    @Name("org.ec4j.maven.EndFile")
+    @Label("End File")
+    @Category(CATEGORY)
+    @Description("Finishing a file in a violation handler; this is where format writes the fixed file back")
+    static class EndFileEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Handler")
+        String handler;
+
+        @Label("Result")
+        String result;
+
+        @Label("Pass")
+        @Description("The number of times the file was linted so far, starting at 1")
+        int pass;
+    }
+
+    /**
+     * Shared instances for checking whether an event type is being recorded without allocating a new event. Initialized
+     * only once {@link FlightRecorderEvents#AVAILABLE} was found to be {@code true}.
+     */
+    private static final class Probes {
+        static final DirectoryScanEvent DIRECTORY_SCAN = new DirectoryScanEvent();
+        static final EndFileEvent END_FILE = new EndFileEvent();
+        static final LintEvent LINT = new LintEvent();
+        static final QueryPropertiesEvent QUERY_PROPERTIES = new QueryPropertiesEvent();
+    }
+
+    static final boolean AVAILABLE = isAvailable();
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creating the first event instance registers all event classes with the JVM, which costs tens of milliseconds.
+     * {@link FlightRecorder#isInitialized()} is cheap and allows to skip that unless some recording was started.
+     *
+     * @return {@code true} if {@code jdk.jfr} is available and the flight recorder was initialized
+     */
+    private static boolean isRecording() {
+        return AVAILABLE && FlightRecorder.isInitialized();
+    }
+
+    static Object beginDirectoryScan() {
+        if (isRecording() && Probes.DIRECTORY_SCAN.isEnabled()) {
+            final DirectoryScanEvent event = new DirectoryScanEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    static void commitDirectoryScan(Object token, Path basedir, int includedFiles) {
+        if (token != null) {
+            final DirectoryScanEvent event = (DirectoryScanEvent) token;
+            event.end();
+            if (event.shouldCommit()) {
+                event.basedir = basedir.toString();
+                event.includedFiles = includedFiles;
+                event.commit();
+            }
+        }
+    }
+
+    static Object beginQueryProperties() {
+        if (isRecording() && Probes.QUERY_PROPERTIES.isEnabled()) {
+            final QueryPropertiesEvent event = new QueryPropertiesEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    static void commitQueryProperties(Object token, Path path, int propertyCount) {
+        if (token != null) {
+            final QueryPropertiesEvent event = (QueryPropertiesEvent) token;
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path.toString();
+                event.propertyCount = propertyCount;
+                event.commit();
+            }
+        }
+    }
+
+    static Object beginLint() {
+        if (isRecording() && Probes.LINT.isEnabled()) {
+            final LintEvent event = new LintEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    static void commitLint(Object token, String linter, Path path, long size) {
+        if (token != null) {
+            final LintEvent event = (LintEvent) token;
+            event.end();
+            if (event.shouldCommit()) {
+                event.linter = linter;
+                event.path = path.toString();
+                event.size = size;
+                event.commit();
+            }
+        }
+    }
+
+    static Object beginEndFile() {
+        if (isRecording() && Probes.END_FILE.isEnabled()) {
+            final EndFileEvent event = new EndFileEvent();
+            event.begin();
+            return event;
+        }
+        return null;
+    }
+
+    static void commitEndFile(Object token, Path path, String handler, String result, int pass) {
+        if (token != null) {
+            final EndFileEvent event = (EndFileEvent) token;
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path.toString();
+                event.handler = handler;
+                event.result = result;
+                event.pass = pass;
+                event.commit();
+            }
+        }
+    }
+
+    private FlightRecorderEvents() {
+    }
+}
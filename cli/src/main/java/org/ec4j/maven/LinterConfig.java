@@ -31,6 +31,7 @@ public class LinterConfig {
     private String[] excludes;
     private String id;
     private String[] includes;
+    private String[] properties;
     private boolean useDefaultIncludesAndExcludes = true;
 
     public LinterConfig() {
@@ -58,6 +59,14 @@ public class LinterConfig {
         return includes;
     }
 
+    /**
+     * @return the names of {@code .editorconfig} properties the given {@link Linter} consumes or {@code null} if the
+     *         consumed properties should be determined by the plugin
+     */
+    public String[] getProperties() {
+        return properties;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -86,6 +95,10 @@ public class LinterConfig {
         this.includes = includes;
     }
 
+    public void setProperties(String[] properties) {
+        this.properties = properties;
+    }
+
     public void setUseDefaultIncludesAndExcludes(boolean useDefaultIncludesAndExcludes) {
         this.useDefaultIncludesAndExcludes = useDefaultIncludesAndExcludes;
     }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.lint.api.Linter;
+import org.ec4j.lint.api.Logger;
+import org.ec4j.lint.api.Resource;
+import org.ec4j.lint.api.Violation;
+import org.ec4j.lint.api.ViolationHandler;
+
+/**
+ * Runs {@link Linter}s on background threads so that a linter taking too long on some pathological input can be
+ * abandoned and the rest of the files can still be processed.
+ * <p>
+ * An abandoned linter cannot be stopped; its thread is interrupted and left to finish on its own. Therefore the
+ * linters report their violations to a {@link ViolationBuffer} rather than to the actual {@link ViolationHandler} and
+ * the buffered violations are passed on only once all linters of the given file finished in time. Abandoned linters
+ * that ignore the interruption keep running until they finish, even after the execution has ended, which matters in
+ * long-lived JVMs such as the {@code mvnd} daemon; {@link #getAbandonedCount()} tells how many of them there are.
+ * <p>
+ * The methods of this class are supposed to be called from a single thread.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class LinterWatchdog implements Closeable {
+
+    private static final int ABANDONED = 3;
+    private static final int FINISHED = 2;
+    private static final int RUNNING = 1;
+    private static final int SUBMITTED = 0;
+
+    /**
+     * Collects the {@link Violation}s reported by the linters of a single file. All other calls are passed to the
+     * {@link ViolationHandler} given in the constructor right away.
+     */
+    static class ViolationBuffer implements ViolationHandler {
+        private final ViolationHandler delegate;
+        private final List<Violation> violations = new ArrayList<>();
+
+        ViolationBuffer(ViolationHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ReturnState endFile() {
+            flush();
+            return delegate.endFile();
+        }
+
+        @Override
+        public void endFiles() {
+            delegate.endFiles();
+        }
+
+        /**
+         * Passes the buffered {@link Violation}s to the {@link ViolationHandler} given in the constructor.
+         */
+        void flush() {
+            final List<Violation> buffered;
+            synchronized (violations) {
+                buffered = new ArrayList<>(violations);
+                violations.clear();
+            }
+            for (Violation violation : buffered) {
+                delegate.handle(violation);
+            }
+        }
+
+        @Override
+        public Logger getLogger() {
+            return delegate.getLogger();
+        }
+
+        @Override
+        public void handle(Violation violation) {
+            synchronized (violations) {
+                violations.add(violation);
+            }
+        }
+
+        @Override
+        public void startFile(Resource resource) {
+            delegate.startFile(resource);
+        }
+
+        @Override
+        public void startFiles() {
+            delegate.startFiles();
+        }
+    }
+
+    /** The number of abandoned linters still running in this JVM, including those of the earlier executions */
+    private static final AtomicInteger abandonedCount = new AtomicInteger();
+
+    /**
+     * @return the number of abandoned linters still running in this JVM, including those abandoned by the earlier
+     *         executions
+     */
+    static int getAbandonedCount() {
+        return abandonedCount.get();
+    }
+
+    private final ExecutorService executor;
+
+    LinterWatchdog() {
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadFactory threadFactory = r -> {
+            final Thread t = new Thread(r, "editorconfig-linter-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        /* A cached pool because an abandoned linter may keep its thread busy for an unknown time */
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Runs {@code linter} on a background thread and waits for it at most until {@code deadlineNanos}.
+     *
+     * @param linter the {@link Linter} to run
+     * @param resource the {@link Resource} to process
+     * @param properties the {@code .editorconfig} properties applicable to {@code resource}
+     * @param buffer the {@link ViolationBuffer} to report the violations to
+     * @param deadlineNanos the {@link System#nanoTime()} until which {@code linter} has to finish
+     * @return {@code true} if {@code linter} finished in time; {@code false} if it was abandoned or not even started
+     *         because {@code deadlineNanos} has passed already
+     * @throws IOException if {@code linter} failed with an {@link IOException} or if the current thread was
+     *         interrupted
+     */
+    boolean process(Linter linter, Resource resource, ResourceProperties properties, ViolationBuffer buffer,
+            long deadlineNanos) throws IOException {
+        final long timeoutNanos = deadlineNanos - System.nanoTime();
+        if (timeoutNanos <= 0) {
+            /* The earlier linters or passes of the same file have used up all the time */
+            return false;
+        }
+        /*
+         * SUBMITTED until the task starts (RUNNING) or the waiting times out before that (ABANDONED); RUNNING until
+         * the linter finishes (FINISHED) or the waiting times out (ABANDONED). Only the linters abandoned while RUNNING
+         * are counted, because a task abandoned before it started never runs the linter.
+         */
+        final AtomicInteger state = new AtomicInteger(SUBMITTED);
+        final Future<?> future = executor.submit(() -> {
+            if (!state.compareAndSet(SUBMITTED, RUNNING)) {
+                return null;
+            }
+            try {
+                linter.process(resource, properties, buffer);
+            } finally {
+                if (!state.compareAndSet(RUNNING, FINISHED)) {
+                    abandonedCount.decrementAndGet();
+                }
+            }
+            return null;
+        });
+        try {
+            future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            if (!state.compareAndSet(SUBMITTED, ABANDONED) && state.compareAndSet(RUNNING, ABANDONED)) {
+                abandonedCount.incrementAndGet();
+            }
+            future.cancel(true);
+            return false;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a linter to finish");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /** Interrupts the abandoned linters, if any, and lets the idle threads go. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ec4j.core.Cache;
+import org.ec4j.core.EditorConfigLoader;
+import org.ec4j.core.Resource;
+import org.ec4j.core.model.EditorConfig;
+
+/**
+ * A {@link Cache} of parsed {@code .editorconfig} files that keeps at most a given number of the most recently used
+ * entries and counts hits, misses and evictions. Unlike {@link Cache.Caches#permanent()}, it does not grow with the
+ * number of directories in the source tree. The files are cached in the form of {@link SectionMatcher}s, so that
+ * {@link PropertiesResolver} compiles their section globs only once per file; other users of the {@link Cache}
+ * interface, such as {@link org.ec4j.core.ResourcePropertiesService}, get the {@link EditorConfig} they were compiled
+ * from.
+ * <p>
+ * Like {@link Cache.Caches#permanent()}, this class is not thread safe.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class LruCache implements Cache {
+
+    private final Map<Resource, SectionMatcher> entries;
+    private long evictions;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSize the maximum number of entries to keep; if {@code < 0} the number of entries is not limited
+     */
+    LruCache(final int maxSize) {
+        this.entries = new LinkedHashMap<Resource, SectionMatcher>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Resource, SectionMatcher> eldest) {
+                if (maxSize >= 0 && size() > maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public EditorConfig get(Resource editorConfigFile, EditorConfigLoader loader) throws IOException {
+        return getMatcher(editorConfigFile, loader).getEditorConfig();
+    }
+
+    /**
+     * @param editorConfigFile the {@code .editorconfig} file to look up
+     * @param loader the {@link EditorConfigLoader} to parse the file with if it is not cached yet
+     * @return the {@link SectionMatcher} compiled from the given {@code editorConfigFile}
+     * @throws IOException if the file cannot be read
+     */
+    SectionMatcher getMatcher(Resource editorConfigFile, EditorConfigLoader loader) throws IOException {
+        SectionMatcher result = entries.get(editorConfigFile);
+        if (result == null) {
+            misses++;
+            result = SectionMatcher.compile(loader.load(editorConfigFile));
+            entries.put(editorConfigFile, result);
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of entries removed to make space for new ones
+     */
+    long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of lookups served from this {@link LruCache}
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that required parsing an {@code .editorconfig} file
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries currently held
+     */
+    int size() {
+        return entries.size();
+    }
+}
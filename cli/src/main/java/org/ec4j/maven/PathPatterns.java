@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.shared.utils.io.MatchPattern;
+import org.apache.maven.shared.utils.io.SelectorUtils;
+
+/**
+ * A set of Ant style path patterns (as used in {@code AbstractEditorConfigMojo.includes} and
+ * {@code AbstractEditorConfigMojo.excludes}) compiled into a single automaton, so that matching a path costs roughly
+ * the same regardless of whether there are ten or ten thousand patterns.
+ * <p>
+ * The patterns are split into segments at {@link File#separatorChar} and stored in a trie whose nodes are shared by
+ * patterns with a common start. A path is matched by walking the trie segment by segment while keeping the set of
+ * nodes reachable so far; {@code **} nodes loop on themselves. The children of a node are looked up by the segment
+ * itself, by its prefixes ({@code foo*}) or by its suffixes ({@code *.foo}), so that the usual patterns cost a few
+ * hash lookups per path segment. Only segments with other wildcard combinations are matched one by one.
+ * <p>
+ * The semantics are the same as those of {@link SelectorUtils#matchPath(String, String, boolean)} with case sensitive
+ * matching. {@code %regex[...]} patterns are not compiled; they are matched one by one after the automaton.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class PathPatterns {
+
+    /**
+     * A segment containing wildcards other than a single leading or trailing {@code *}.
+     */
+    private static class GlobEdge {
+        private final String glob;
+        private final Node target;
+
+        GlobEdge(String glob, Node target) {
+            this.glob = glob;
+            this.target = target;
+        }
+    }
+
+    private static class Node {
+        /** Set if a pattern ends at this node */
+        private boolean accepting;
+        private Node any;
+        /** {@code true} if this node stands for a {@code **} segment and thus matches any number of segments */
+        private final boolean doubleStar;
+        private Node doubleStarChild;
+        private List<GlobEdge> globs;
+        private Map<String, Node> literals;
+        private int maxPrefixLength;
+        private int maxSuffixLength;
+        private Map<String, Node> prefixes;
+        private Map<String, Node> suffixes;
+
+        Node(boolean doubleStar) {
+            this.doubleStar = doubleStar;
+        }
+
+        Node add(String segment) {
+            if ("**".equals(segment)) {
+                if (doubleStar) {
+                    /* Two consecutive ** segments match the same as a single one */
+                    return this;
+                }
+                if (doubleStarChild == null) {
+                    doubleStarChild = new Node(true);
+                }
+                return doubleStarChild;
+            } else if ("*".equals(segment)) {
+                if (any == null) {
+                    any = new Node(false);
+                }
+                return any;
+            }
+            final int lastStar = segment.lastIndexOf('*');
+            if (lastStar < 0 && segment.indexOf('?') < 0) {
+                if (literals == null) {
+                    literals = new HashMap<>();
+                }
+                return child(literals, segment);
+            } else if (lastStar == 0 && segment.indexOf('?') < 0) {
+                final String suffix = segment.substring(1);
+                if (suffixes == null) {
+                    suffixes = new HashMap<>();
+                }
+                maxSuffixLength = Math.max(maxSuffixLength, suffix.length());
+                return child(suffixes, suffix);
+            } else if (lastStar == segment.length() - 1 && segment.indexOf('*') == lastStar
+                    && segment.indexOf('?') < 0) {
+                final String prefix = segment.substring(0, lastStar);
+                if (prefixes == null) {
+                    prefixes = new HashMap<>();
+                }
+                maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+                return child(prefixes, prefix);
+            } else {
+                if (globs == null) {
+                    globs = new ArrayList<>();
+                }
+                for (GlobEdge edge : globs) {
+                    if (edge.glob.equals(segment)) {
+                        return edge.target;
+                    }
+                }
+                final Node result = new Node(false);
+                globs.add(new GlobEdge(segment, result));
+                return result;
+            }
+        }
+
+        private static Node child(Map<String, Node> map, String key) {
+            Node result = map.get(key);
+            if (result == null) {
+                result = new Node(false);
+                map.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * Adds the nodes reachable from this node by consuming the given {@code segment} to {@code result}.
+         */
+        void step(String segment, List<Node> result) {
+            if (doubleStar) {
+                addClosure(this, result);
+            }
+            if (any != null) {
+                addClosure(any, result);
+            }
+            if (literals != null) {
+                addClosure(literals.get(segment), result);
+            }
+            if (suffixes != null) {
+                final int len = segment.length();
+                for (int i = Math.max(0, len - maxSuffixLength); i <= len; i++) {
+                    addClosure(suffixes.get(segment.substring(i)), result);
+                }
+            }
+            if (prefixes != null) {
+                final int max = Math.min(segment.length(), maxPrefixLength);
+                for (int i = 0; i <= max; i++) {
+                    addClosure(prefixes.get(segment.substring(0, i)), result);
+                }
+            }
+            if (globs != null) {
+                for (GlobEdge edge : globs) {
+                    if (SelectorUtils.match(edge.glob, segment, true)) {
+                        addClosure(edge.target, result);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the given {@code node} and the {@code **} nodes reachable from it without consuming any segment to
+         * {@code result}.
+         */
+        static void addClosure(Node node, List<Node> result) {
+            while (node != null) {
+                if (!containsIdentical(result, node)) {
+                    result.add(node);
+                }
+                node = node.doubleStarChild;
+            }
+        }
+
+        private static boolean containsIdentical(List<Node> nodes, Node node) {
+            for (Node n : nodes) {
+                if (n == node) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Compiles the given patterns. The patterns are expected to be normalized by
+     * {@link EditorConfigEngine#normalizePatterns(String[])}.
+     *
+     * @param patterns the patterns to compile
+     * @return a new {@link PathPatterns}
+     */
+    static PathPatterns compile(String... patterns) {
+        final Node root = new Node(false);
+        final List<MatchPattern> regexPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern.length() > SelectorUtils.REGEX_HANDLER_PREFIX.length() + 1
+                    && pattern.startsWith(SelectorUtils.REGEX_HANDLER_PREFIX)
+                    && pattern.endsWith(SelectorUtils.PATTERN_HANDLER_SUFFIX)) {
+                regexPatterns.add(MatchPattern.fromString(pattern));
+                continue;
+            }
+            if (pattern.length() > SelectorUtils.ANT_HANDLER_PREFIX.length() + 1
+                    && pattern.startsWith(SelectorUtils.ANT_HANDLER_PREFIX)
+                    && pattern.endsWith(SelectorUtils.PATTERN_HANDLER_SUFFIX)) {
+                pattern = pattern.substring(SelectorUtils.ANT_HANDLER_PREFIX.length(),
+                        pattern.length() - SelectorUtils.PATTERN_HANDLER_SUFFIX.length());
+            }
+            if (pattern.startsWith(File.separator)) {
+                /* Never matches a relative path, see SelectorUtils.separatorPatternStartSlashMismatch() */
+                continue;
+            }
+            Node node = root;
+            int start = 0;
+            while (start < pattern.length()) {
+                int end = pattern.indexOf(File.separatorChar, start);
+                if (end < 0) {
+                    end = pattern.length();
+                }
+                if (end > start) {
+                    node = node.add(pattern.substring(start, end));
+                }
+                start = end + 1;
+            }
+            node.accepting = true;
+        }
+        return new PathPatterns(root, regexPatterns.toArray(new MatchPattern[0]));
+    }
+
+    private final MatchPattern[] regexPatterns;
+    private final Node root;
+
+    private PathPatterns(Node root, MatchPattern[] regexPatterns) {
+        this.root = root;
+        this.regexPatterns = regexPatterns;
+    }
+
+    /**
+     * @param path the path to walk through the automaton, segments separated by {@link File#separatorChar}
+     * @return the nodes reachable after consuming the whole {@code path}
+     */
+    private List<Node> walk(String path) {
+        List<Node> current = new ArrayList<>();
+        Node.addClosure(root, current);
+        List<Node> next = new ArrayList<>();
+        int start = 0;
+        while (start < path.length() && !current.isEmpty()) {
+            int end = path.indexOf(File.separatorChar, start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                final String segment = path.substring(start, end);
+                for (Node node : current) {
+                    node.step(segment, next);
+                }
+                final List<Node> swap = current;
+                current = next;
+                next = swap;
+                next.clear();
+            }
+            start = end + 1;
+        }
+        return current;
+    }
+
+    /**
+     * @param path the path to match, segments separated by {@link File#separatorChar}
+     * @return {@code true} if any of the patterns matches the given {@code path}
+     */
+    boolean matches(String path) {
+        for (Node node : walk(path)) {
+            if (node.accepting) {
+                return true;
+            }
+        }
+        for (MatchPattern regexPattern : regexPatterns) {
+            if (regexPattern.matchPath(path, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param dir a directory path, segments separated by {@link File#separatorChar}
+     * @return {@code true} if any of the patterns matches all paths under the given {@code dir}, e.g. because it ends
+     *         with {@code dir/**}
+     */
+    boolean matchesAllUnder(String dir) {
+        for (Node node : walk(dir)) {
+            if (node.doubleStar && node.accepting) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param dir a directory path, segments separated by {@link File#separatorChar}
+     * @return {@code true} if some of the patterns may match a path under the given {@code dir}
+     */
+    boolean mayMatchUnder(String dir) {
+        return regexPatterns.length > 0 || !walk(dir).isEmpty();
+    }
+}
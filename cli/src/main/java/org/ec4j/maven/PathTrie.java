@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact list of relative file paths sharing their directory prefixes. Each directory and file is a node holding the
+ * index of its parent node and its own name, and the names are interned, so that the memory needed grows with the
+ * number of files and unique names rather than with the total length of the paths. Full paths are built only on
+ * {@link #get(int)}.
+ * <p>
+ * Not thread safe.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class PathTrie {
+
+    /**
+     * Adds files in the order of a depth first directory walk. The nodes of the directories entered via
+     * {@link #enter(String)} are created only once some file is added under them, so that directories without any
+     * included file take no space in the trie.
+     */
+    final class WalkCursor {
+        private int depth;
+        private String[] names = new String[16];
+        private int[] nodes = new int[16];
+
+        /**
+         * @param name the file name of a file in the current directory to add
+         */
+        void addFile(String name) {
+            int parent = ROOT;
+            for (int i = 0; i < depth; i++) {
+                if (nodes[i] == UNSET) {
+                    nodes[i] = addNode(parent, names[i]);
+                }
+                parent = nodes[i];
+            }
+            addFileNode(addNode(parent, name));
+        }
+
+        /**
+         * @param name the name of a subdirectory of the current directory to enter
+         */
+        void enter(String name) {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                nodes = Arrays.copyOf(nodes, depth * 2);
+            }
+            names[depth] = name;
+            nodes[depth] = UNSET;
+            depth++;
+        }
+
+        /** Returns to the parent of the current directory */
+        void leave() {
+            names[--depth] = null;
+        }
+    }
+
+    /** The parent of the top level nodes */
+    private static final int ROOT = -1;
+    private static final int UNSET = -2;
+
+    /** Directory nodes by their parent node and name; created only by {@link #add(String)} */
+    private Map<String, Integer> directories;
+    private int fileCount;
+    private int[] files = new int[64];
+    private final Map<String, String> internedNames = new HashMap<>();
+    private int nodeCount;
+    private int[] parents = new int[64];
+    private String[] segments = new String[64];
+    private final String separator;
+
+    /**
+     * @param separator the name separator to use in {@link #add(String)} and {@link #get(int)}
+     */
+    PathTrie(String separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Adds the given path. Unlike {@link WalkCursor}, the directories need not be added in any particular order.
+     *
+     * @param relPath a relative path using {@link #separator}; the caller is responsible for not adding the same path
+     *        twice
+     */
+    void add(String relPath) {
+        if (directories == null) {
+            directories = new HashMap<>();
+        }
+        int parent = ROOT;
+        int start = 0;
+        int end;
+        while ((end = relPath.indexOf(separator, start)) >= 0) {
+            final String name = relPath.substring(start, end);
+            final String key = parent + separator + name;
+            Integer node = directories.get(key);
+            if (node == null) {
+                node = addNode(parent, name);
+                directories.put(key, node);
+            }
+            parent = node;
+            start = end + separator.length();
+        }
+        addFileNode(addNode(parent, relPath.substring(start)));
+    }
+
+    private void addFileNode(int node) {
+        if (fileCount == files.length) {
+            files = Arrays.copyOf(files, fileCount * 2);
+        }
+        files[fileCount++] = node;
+    }
+
+    private int addNode(int parent, String name) {
+        if (nodeCount == parents.length) {
+            parents = Arrays.copyOf(parents, nodeCount * 2);
+            segments = Arrays.copyOf(segments, nodeCount * 2);
+        }
+        String interned = internedNames.get(name);
+        if (interned == null) {
+            interned = name;
+            internedNames.put(name, name);
+        }
+        parents[nodeCount] = parent;
+        segments[nodeCount] = interned;
+        return nodeCount++;
+    }
+
+    /**
+     * @param index the index of the file to return, in the order of addition
+     * @return the relative path of the file at the given {@code index}, using {@link #separator}
+     */
+    String get(int index) {
+        int node = files[index];
+        int length = segments[node].length();
+        for (int n = parents[node]; n != ROOT; n = parents[n]) {
+            length += segments[n].length() + separator.length();
+        }
+        final char[] chars = new char[length];
+        int end = length;
+        for (int n = node; n != ROOT; n = parents[n]) {
+            final String segment = segments[n];
+            end -= segment.length();
+            segment.getChars(0, segment.length(), chars, end);
+            if (end > 0) {
+                end -= separator.length();
+                separator.getChars(0, separator.length(), chars, end);
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the number of files added
+     */
+    int size() {
+        return fileCount;
+    }
+
+    /**
+     * @return a new {@link WalkCursor} positioned at the root of this trie
+     */
+    WalkCursor walkCursor() {
+        return new WalkCursor();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ec4j.core.Cache;
+import org.ec4j.core.EditorConfigLoader;
+import org.ec4j.core.Resource;
+import org.ec4j.core.Resource.Resources;
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.core.ResourcePropertiesService;
+import org.ec4j.core.model.Ec4jPath;
+import org.ec4j.core.model.Ec4jPath.Ec4jPaths;
+import org.ec4j.core.model.Property;
+import org.ec4j.core.model.Section;
+
+/**
+ * Resolves the {@code .editorconfig} properties applicable to a file like {@link ResourcePropertiesService} does, but
+ * matches the sections of each {@code .editorconfig} file using the {@link SectionMatcher} cached in an
+ * {@link LruCache} and looks up the {@code .editorconfig} files only once per directory.
+ * <p>
+ * Only the part of the {@link ResourcePropertiesService} configuration the plugin uses is supported: the config file
+ * name, the {@link EditorConfigLoader} and an {@link LruCache} as the {@link Cache}. The constructor rejects
+ * {@link ResourcePropertiesService#getRootDirectories() root directories} and
+ * {@link ResourcePropertiesService#getDefaultEditorConfigs() default EditorConfigs}. The {@code keepUnset} option
+ * cannot be checked because {@link ResourcePropertiesService} does not expose it; the properties set to
+ * {@code unset} are always removed, as with the default {@code keepUnset(false)}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class PropertiesResolver {
+
+    private final LruCache cache;
+    private final String configFileName;
+    /** The lengths of the string forms of the directories containing {@link #matchers} */
+    private int[] dirLengths = new int[8];
+    /** The directory of the file passed to the last {@link #queryProperties(Path, Charset)} call */
+    private Path lastDir;
+    private final EditorConfigLoader loader;
+    /** The {@code .editorconfig} files applicable to the files in {@link #lastDir}, closest first */
+    private final List<SectionMatcher> matchers = new ArrayList<>();
+
+    /**
+     * @param service the {@link ResourcePropertiesService} whose configuration should be used; its {@link Cache} has
+     *        to be an {@link LruCache}
+     * @throws IllegalArgumentException if {@code service} uses some configuration this class does not support
+     */
+    PropertiesResolver(ResourcePropertiesService service) {
+        if (!(service.getCache() instanceof LruCache)) {
+            throw new IllegalArgumentException(PropertiesResolver.class.getSimpleName() + " requires an "
+                    + LruCache.class.getSimpleName() + "; found " + service.getCache().getClass().getName());
+        }
+        if (!service.getRootDirectories().isEmpty()) {
+            throw new IllegalArgumentException(
+                    PropertiesResolver.class.getSimpleName() + " does not support root directories; found "
+                            + service.getRootDirectories());
+        }
+        if (!service.getDefaultEditorConfigs().isEmpty()) {
+            throw new IllegalArgumentException(
+                    PropertiesResolver.class.getSimpleName() + " does not support default EditorConfigs");
+        }
+        this.cache = (LruCache) service.getCache();
+        this.configFileName = service.getConfigFileName();
+        this.loader = service.getLoader();
+    }
+
+    /**
+     * The {@code .editorconfig} files are looked up only when {@code file} is in a different directory than the file
+     * passed to the previous call, so that the files of a directory cost neither file system access nor
+     * {@link LruCache} lookups after the first one.
+     *
+     * @param file the absolute path of the file to resolve the properties for
+     * @param charset the encoding to read the {@code .editorconfig} files with
+     * @return the properties of the sections matching the given {@code file} in all {@code .editorconfig} files
+     *         from the directory of the {@code file} up to the first one declaring {@code root = true}; the closer
+     *         files and the later sections take precedence
+     * @throws IOException if some {@code .editorconfig} file cannot be read
+     */
+    ResourceProperties queryProperties(Path file, Charset charset) throws IOException {
+        final Path dir = file.getParent();
+        if (!dir.equals(lastDir)) {
+            lookUp(dir, charset);
+        }
+
+        /* The directories are ancestors of file, so the relative paths are just suffixes of its string form */
+        final String fileString = file.toString();
+        final ResourceProperties.Builder result = ResourceProperties.builder();
+        for (int i = matchers.size() - 1; i >= 0; i--) {
+            int start = dirLengths[i];
+            if (fileString.charAt(start) == File.separatorChar) {
+                start++;
+            }
+            String relPath = fileString.substring(start);
+            if (File.separatorChar != '/') {
+                relPath = relPath.replace(File.separatorChar, '/');
+            }
+            final Ec4jPath path = Ec4jPaths.of(relPath);
+            for (Section section : matchers.get(i).match(path)) {
+                for (Property property : section.getProperties().values()) {
+                    if (property.isUnset()) {
+                        result.removeProperty(property);
+                    } else {
+                        result.property(property);
+                    }
+                }
+            }
+        }
+        return result.build();
+    }
+
+    private void lookUp(Path dir, Charset charset) throws IOException {
+        /* Reset first so that a failed lookup is retried for the next file */
+        lastDir = null;
+        matchers.clear();
+        boolean root = false;
+        for (Path d = dir; d != null && !root; d = d.getParent()) {
+            final Resource editorConfigFile = Resources.ofPath(d.resolve(configFileName), charset);
+            if (editorConfigFile.exists()) {
+                final SectionMatcher matcher = cache.getMatcher(editorConfigFile, loader);
+                root = matcher.getEditorConfig().isRoot();
+                if (matchers.size() == dirLengths.length) {
+                    dirLengths = Arrays.copyOf(dirLengths, dirLengths.length * 2);
+                }
+                dirLengths[matchers.size()] = d.toString().length();
+                matchers.add(matcher);
+            }
+        }
+        lastDir = dir;
+    }
+}
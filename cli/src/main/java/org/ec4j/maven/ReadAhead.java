@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ec4j.maven.TextDecoder.Decoding;
+
+/**
+ * Reads and decodes files on background threads ahead of the thread that lints them, keeping the total size of the
+ * files read but not yet taken over by the linting thread under a given limit.
+ * <p>
+ * The methods of this class are supposed to be called from a single thread; only the reading and decoding happen on
+ * the background threads.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class ReadAhead implements Closeable {
+
+    /**
+     * The text of a file that may still be being read. It is also the task reading it, so that scheduling a file costs
+     * no objects beyond this one and the {@link Future} of the executor.
+     */
+    static class PendingText implements Callable<String> {
+        private final Path absFile;
+        /** Written by the reading thread; {@link Future#get()} makes it visible to the awaiting thread */
+        private boolean clean;
+        private final Decoding decoding;
+        private final TextDecoder decoder;
+        private final Path file;
+        /** {@code null} if the file was read synchronously */
+        private Future<String> future;
+        private final TextPrescreen prescreen;
+        private final long size;
+        /** The text of a file read synchronously */
+        private String text;
+        /** Written by the reading thread like {@link #clean} */
+        private boolean unexpectedBom;
+
+        PendingText(Path file, Path absFile, long size, Decoding decoding, TextPrescreen prescreen,
+                TextDecoder decoder) {
+            this.file = file;
+            this.absFile = absFile;
+            this.size = size;
+            this.decoding = decoding;
+            this.prescreen = prescreen;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public String call() throws IOException {
+            final byte[] bytes = Files.readAllBytes(absFile);
+            clean = prescreen != null && prescreen.isClean(bytes, decoding);
+            unexpectedBom = TextDecoder.hasUnexpectedBom(bytes, decoding);
+            return decoder.decode(bytes, decoding);
+        }
+
+        /**
+         * @return {@code true} if the file passed the {@link TextPrescreen} given to
+         *         {@link ReadAhead#submit(Path, Path, long, Decoding, TextPrescreen)}; valid only after
+         *         {@link ReadAhead#await(PendingText)} returned
+         */
+        boolean isClean() {
+            return clean;
+        }
+
+        /**
+         * @return the size of the file in bytes
+         */
+        long getSize() {
+            return size;
+        }
+    }
+
+    private long bytesInFlight;
+    private final TextDecoder decoder;
+    private final ExecutorService executor;
+    private final long maxBytesInFlight;
+
+    /**
+     * @param decoder the {@link TextDecoder} to use
+     * @param maxBytesInFlight the maximum number of bytes read ahead; if {@code <= 0} no background threads are used
+     *        and files are read synchronously by {@link #submit(Path, Path, long, Decoding, TextPrescreen)}
+     * @param threads the number of background threads
+     */
+    ReadAhead(TextDecoder decoder, long maxBytesInFlight, int threads) {
+        this.decoder = decoder;
+        this.maxBytesInFlight = maxBytesInFlight;
+        if (maxBytesInFlight > 0 && threads > 0) {
+            final AtomicInteger counter = new AtomicInteger();
+            final ThreadFactory threadFactory = r -> {
+                final Thread t = new Thread(r, "editorconfig-reader-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @param idle {@code true} if the caller has no {@link PendingText} to wait for
+     * @return {@code true} if another file can be {@link #submit(Path, Path, long, Decoding, TextPrescreen)
+     *         submitted}; always {@code true}
+     *         if {@code idle} so that a single file larger than the limit can still be read
+     */
+    boolean hasCapacity(boolean idle) {
+        return idle || (executor != null && bytesInFlight < maxBytesInFlight);
+    }
+
+    /**
+     * Schedules the given file for reading.
+     *
+     * @param file the path relative to {@code basedir}; used for logging only
+     * @param absFile the file to read
+     * @param size the size of {@code absFile} in bytes
+     * @param decoding the {@link Decoding} to use
+     * @param prescreen the {@link TextPrescreen} to run over the raw content of the file or {@code null}
+     * @return a new {@link PendingText}
+     * @throws IOException in synchronous mode, if the file cannot be read
+     */
+    PendingText submit(Path file, Path absFile, long size, Decoding decoding, TextPrescreen prescreen)
+            throws IOException {
+        final PendingText result = new PendingText(file, absFile, size, decoding, prescreen, decoder);
+        if (executor == null) {
+            result.text = result.call();
+        } else {
+            result.future = executor.submit(result);
+            bytesInFlight += size;
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the given {@link PendingText} and releases its bytes from the read ahead limit. Any warnings about the
+     * content of the file are logged on the calling thread.
+     *
+     * @param pendingText the {@link PendingText} to wait for
+     * @return the text of the file
+     * @throws IOException if the file could not be read
+     */
+    String await(PendingText pendingText) throws IOException {
+        if (pendingText.future == null) {
+            warnIfNeeded(pendingText);
+            return pendingText.text;
+        }
+        try {
+            final String result = pendingText.future.get();
+            warnIfNeeded(pendingText);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a file to be read");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            bytesInFlight -= pendingText.size;
+        }
+    }
+
+    private void warnIfNeeded(PendingText pendingText) {
+        if (pendingText.unexpectedBom) {
+            /* Logged here rather than on the reading thread so that the message is grouped with the file */
+            decoder.warnUnexpectedBom(pendingText.file, pendingText.decoding);
+        }
+    }
+
+    /** Stops the background threads, if any. */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
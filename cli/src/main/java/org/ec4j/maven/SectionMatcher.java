@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ec4j.core.model.Ec4jPath;
+import org.ec4j.core.model.EditorConfig;
+import org.ec4j.core.model.Glob;
+import org.ec4j.core.model.Section;
+
+/**
+ * The sections of a single {@link EditorConfig} compiled into a single automaton, so that finding the sections
+ * matching a path costs a single pass over the path rather than one regular expression match per section.
+ * <p>
+ * Each section glob is reduced to the literal suffixes any matching path must end with: {@code [*.java]} ends with
+ * {@code .java} and {@code [{*.yml,*.yaml}]} with either {@code .yml} or {@code .yaml}. The suffixes of all sections
+ * are stored reversed in a character trie that is walked from the end of the path; every node passed contributes the
+ * sections whose suffix ends there. Sections whose glob has no literal suffix (such as {@code [*]} or
+ * {@code [*.[ch]]}) are candidates for every path.
+ * <p>
+ * {@link Glob} does not expose its regular expression and {@link Section} cannot be subclassed, hence the candidates
+ * are confirmed by {@link Section#match(Ec4jPath)}. This keeps the semantics exactly those of ec4j while the regular
+ * expressions of sections with non-matching suffixes are never evaluated.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class SectionMatcher {
+
+    private static class Node {
+        private Map<Character, Node> children;
+        /** The sections whose suffix ends at this node */
+        private BitSet sections;
+
+        Node child(char c) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node result = children.get(c);
+            if (result == null) {
+                result = new Node();
+                children.put(c, result);
+            }
+            return result;
+        }
+    }
+
+    /** The characters that end the literal suffix of a glob */
+    private static final String GLOB_SPECIAL_CHARS = "*?[]{},\\/";
+
+    /**
+     * @param editorConfig the {@link EditorConfig} whose sections should be compiled
+     * @return a new {@link SectionMatcher}
+     */
+    static SectionMatcher compile(EditorConfig editorConfig) {
+        final List<Section> sections = editorConfig.getSections();
+        final Node root = new Node();
+        final BitSet unconditional = new BitSet(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            final List<String> suffixes = literalSuffixes(sections.get(i).getGlob().getSource());
+            if (suffixes == null) {
+                unconditional.set(i);
+            } else {
+                for (String suffix : suffixes) {
+                    Node node = root;
+                    for (int j = suffix.length() - 1; j >= 0; j--) {
+                        node = node.child(suffix.charAt(j));
+                    }
+                    if (node.sections == null) {
+                        node.sections = new BitSet(sections.size());
+                    }
+                    node.sections.set(i);
+                }
+            }
+        }
+        return new SectionMatcher(editorConfig, root, unconditional);
+    }
+
+    /**
+     * @param glob the source of a section glob
+     * @return the literal suffixes one of which every path matching the given {@code glob} ends with or {@code null}
+     *         if no such suffixes can be determined
+     */
+    static List<String> literalSuffixes(String glob) {
+        if (glob.indexOf('\\') >= 0) {
+            /* Escapes are rare enough to not bother */
+            return null;
+        }
+        if (glob.endsWith("}")) {
+            /* A trailing {a,b,c} group: each alternative has to have a literal suffix of its own */
+            final int open = glob.lastIndexOf('{');
+            if (open < 0 || containsAny(glob, 0, open, "{}[]")) {
+                return null;
+            }
+            final String alternatives = glob.substring(open + 1, glob.length() - 1);
+            if (alternatives.indexOf(',') < 0 || alternatives.contains("..")
+                    || containsAny(alternatives, 0, alternatives.length(), "{}[]")) {
+                /* {a} is a literal and {1..3} a number range */
+                return null;
+            }
+            final List<String> result = new ArrayList<>();
+            int start = 0;
+            int end;
+            do {
+                end = alternatives.indexOf(',', start);
+                final String suffix = literalSuffix(alternatives.substring(start, end < 0 ? alternatives.length() : end));
+                if (suffix.isEmpty()) {
+                    return null;
+                }
+                result.add(suffix);
+                start = end + 1;
+            } while (end >= 0);
+            return result;
+        }
+        final String suffix = literalSuffix(glob);
+        return suffix.isEmpty() ? null : Collections.singletonList(suffix);
+    }
+
+    private static boolean containsAny(String string, int start, int end, String chars) {
+        for (int i = start; i < end; i++) {
+            if (chars.indexOf(string.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String literalSuffix(String glob) {
+        int start = glob.length();
+        while (start > 0 && GLOB_SPECIAL_CHARS.indexOf(glob.charAt(start - 1)) < 0) {
+            start--;
+        }
+        return glob.substring(start);
+    }
+
+    private final EditorConfig editorConfig;
+    private final Node root;
+    private final List<Section> sections;
+    /** The sections to check for every path */
+    private final BitSet unconditional;
+
+    private SectionMatcher(EditorConfig editorConfig, Node root, BitSet unconditional) {
+        this.editorConfig = editorConfig;
+        this.root = root;
+        this.sections = editorConfig.getSections();
+        this.unconditional = unconditional;
+    }
+
+    /**
+     * @return the {@link EditorConfig} this {@link SectionMatcher} was compiled from
+     */
+    EditorConfig getEditorConfig() {
+        return editorConfig;
+    }
+
+    /**
+     * @param path the path relative to the directory of the {@code .editorconfig} file
+     * @return the {@link Section}s matching the given {@code path} in the order they appear in the
+     *         {@code .editorconfig} file
+     */
+    List<Section> match(Ec4jPath path) {
+        final String pathString = path.toString();
+        final BitSet candidates = (BitSet) unconditional.clone();
+        Node node = root;
+        for (int i = pathString.length() - 1; i >= 0 && node.children != null; i--) {
+            node = node.children.get(pathString.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.sections != null) {
+                candidates.or(node.sections);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Section> result = new ArrayList<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            final Section section = sections.get(i);
+            if (section.match(path)) {
+                result.add(section);
+            }
+        }
+        return result;
+    }
+}
@@ -24,28 +24,34 @@ import org.ec4j.lint.api.Logger;
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public class Slf4jLintLogger extends Logger.AbstractLogger {
-    static LogLevelSupplier toEc4jLogLevelSupplier(final org.slf4j.Logger log) {
-        return () -> {
-            if (log.isTraceEnabled()) {
-                return LogLevel.TRACE;
-            } else if (log.isDebugEnabled()) {
-                return LogLevel.DEBUG;
-            } else if (log.isInfoEnabled()) {
-                return LogLevel.INFO;
-            } else if (log.isWarnEnabled()) {
-                return LogLevel.WARN;
-            } else if (log.isErrorEnabled()) {
-                return LogLevel.ERROR;
-            } else {
-                return LogLevel.NONE;
-            }
-        };
+    /**
+     * The levels of Maven loggers do not change during a Mojo execution, hence it is enough to determine the
+     * {@link LogLevel} once rather than evaluating the whole {@code isXxxEnabled()} chain on every
+     * {@link #isLogLevelEnabled(LogLevel)} call.
+     *
+     * @param log the logger to inspect
+     * @return the most verbose {@link LogLevel} enabled in the given {@code log}
+     */
+    static LogLevel toEc4jLogLevel(final org.slf4j.Logger log) {
+        if (log.isTraceEnabled()) {
+            return LogLevel.TRACE;
+        } else if (log.isDebugEnabled()) {
+            return LogLevel.DEBUG;
+        } else if (log.isInfoEnabled()) {
+            return LogLevel.INFO;
+        } else if (log.isWarnEnabled()) {
+            return LogLevel.WARN;
+        } else if (log.isErrorEnabled()) {
+            return LogLevel.ERROR;
+        } else {
+            return LogLevel.NONE;
+        }
     }
 
     private final org.slf4j.Logger delegate;
 
     public Slf4jLintLogger(org.slf4j.Logger delegate) {
-        super(toEc4jLogLevelSupplier(delegate));
+        super(toEc4jLogLevel(delegate));
         this.delegate = delegate;
     }
 
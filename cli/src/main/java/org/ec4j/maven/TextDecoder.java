@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ec4j.core.Resource.Bom;
+import org.ec4j.core.Resource.Charsets;
+import org.slf4j.Logger;
+
+/**
+ * Decodes file contents to text, taking a shortcut for the most common ASCII and UTF-8 content that does not need to
+ * go through a general {@link java.nio.charset.CharsetDecoder}.
+ * <p>
+ * The resulting text is the same as the one {@link org.ec4j.lint.api.Resource} would read by itself: malformed input
+ * is replaced rather than reported and a missing Byte Order Mark (BOM) is an error only for charsets requiring it.
+ * <p>
+ * {@link #decode(byte[], Decoding)} and {@link #hasUnexpectedBom(byte[], Decoding)} may be called from several threads
+ * at once, as {@link ReadAhead} does; they do not log anything. The other methods are supposed to be called from a
+ * single thread.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class TextDecoder {
+
+    /**
+     * A {@link Charset} resolved from a {@code charset} {@code .editorconfig} property value together with what we
+     * need to know about it for decoding.
+     */
+    static class Decoding {
+        private final Bom bom;
+        private final Charset charset;
+        private final boolean latin1;
+        private final boolean utf8;
+
+        Decoding(Charset charset) {
+            this.charset = charset;
+            this.bom = Bom.ofName(charset.name());
+            this.utf8 = bom == Bom.UTF_8_BOM || StandardCharsets.UTF_8.equals(charset);
+            this.latin1 = StandardCharsets.ISO_8859_1.equals(charset);
+        }
+
+        /**
+         * @return the {@link Charset} to pass to {@link org.ec4j.lint.api.Resource}
+         */
+        public Charset getCharset() {
+            return charset;
+        }
+
+        boolean isAsciiCompatible() {
+            return utf8 || latin1 || StandardCharsets.US_ASCII.equals(charset);
+        }
+
+        boolean isLatin1() {
+            return latin1;
+        }
+    }
+
+    private static final byte[] UTF_8_BOM_BYTES = Bom.UTF_8_BOM.getBomBytes();
+
+    /**
+     * @param bytes the array to search
+     * @param from the index to start at
+     * @return the index of the first byte greater than {@code 0x7F} at or after {@code from} or {@code bytes.length}
+     *         if there is no such byte
+     */
+    static int firstNonAscii(byte[] bytes, int from) {
+        final int len = bytes.length;
+        int i = from;
+        /* Check eight bytes at a time, the JIT is good at this shape of loop */
+        for (; i + 8 <= len; i += 8) {
+            if (((bytes[i] | bytes[i + 1] | bytes[i + 2] | bytes[i + 3] | bytes[i + 4] | bytes[i + 5] | bytes[i + 6]
+                    | bytes[i + 7]) & 0x80) != 0) {
+                break;
+            }
+        }
+        for (; i < len; i++) {
+            if (bytes[i] < 0) {
+                return i;
+            }
+        }
+        return len;
+    }
+
+    static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final Map<String, Decoding> decodings = new HashMap<>();
+
+    private final Logger log;
+
+    TextDecoder(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * @param bytes the raw content of some file
+     * @param decoding the {@link Decoding} to use
+     * @return the text of the given file
+     * @throws CharacterCodingException in case the general decoder fails in a way other than malformed or unmappable
+     *         input
+     */
+    String decode(byte[] bytes, Decoding decoding) throws CharacterCodingException {
+        int start = 0;
+        if (decoding.bom != null) {
+            final byte[] bomBytes = decoding.bom.getBomBytes();
+            if (bytes.length == 0) {
+                return "";
+            } else if (!startsWith(bytes, bomBytes)) {
+                /* Throws the same exception as org.ec4j.lint.api.Resource would throw when reading the file */
+                return Bom.skipBom(bytes, decoding.charset);
+            }
+            start = bomBytes.length;
+        }
+
+        final int len = bytes.length - start;
+        if (decoding.isAsciiCompatible()) {
+            if (firstNonAscii(bytes, start) == bytes.length) {
+                /* Pure ASCII: ISO-8859-1 maps bytes to chars one to one which is the cheapest conversion there is */
+                return new String(bytes, start, len, StandardCharsets.ISO_8859_1);
+            } else if (decoding.utf8) {
+                return new String(bytes, start, len, StandardCharsets.UTF_8);
+            } else if (decoding.latin1) {
+                return new String(bytes, start, len, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return decoding.charset.newDecoder() //
+                .onMalformedInput(CodingErrorAction.REPLACE) //
+                .onUnmappableCharacter(CodingErrorAction.REPLACE) //
+                .decode(ByteBuffer.wrap(bytes, start, len)) //
+                .toString();
+    }
+
+    /**
+     * @param bytes the raw content of some file
+     * @param decoding the {@link Decoding} of the file
+     * @return {@code true} if the file starts with a UTF-8 Byte Order Mark (BOM) its {@code charset} does not expect
+     */
+    static boolean hasUnexpectedBom(byte[] bytes, Decoding decoding) {
+        return decoding.bom == null && decoding.utf8 && startsWith(bytes, UTF_8_BOM_BYTES);
+    }
+
+    /**
+     * Logs that the given file starts with a Byte Order Mark (BOM) its {@code charset} does not expect.
+     *
+     * @param file the file whose {@link #hasUnexpectedBom(byte[], Decoding)} returned {@code true}
+     * @param decoding the {@link Decoding} of the file
+     */
+    void warnUnexpectedBom(Path file, Decoding decoding) {
+        log.warn("File '{}' starts with a UTF-8 Byte Order Mark (BOM) but its charset is '{}'; consider using {}", file,
+                decoding.charset, Bom.UTF_8_BOM.getName());
+    }
+
+    /**
+     * @param charsetName the value of a {@code charset} {@code .editorconfig} property
+     * @return a {@link Decoding} for the given {@code charsetName}, possibly cached
+     */
+    Decoding decoding(String charsetName) {
+        Decoding result = decodings.get(charsetName);
+        if (result == null) {
+            result = new Decoding(Charsets.forName(charsetName));
+            decodings.put(charsetName, result);
+        }
+        return result;
+    }
+
+}
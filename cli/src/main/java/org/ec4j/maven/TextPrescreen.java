@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.core.model.PropertyType;
+import org.ec4j.core.model.PropertyType.EndOfLineValue;
+import org.ec4j.maven.TextDecoder.Decoding;
+
+/**
+ * A single pass over the raw bytes of a file that can tell for the vast majority of files that
+ * {@link org.ec4j.linters.TextLinter} would find no violations in them, so that the linter does not need to run at
+ * all. The pre-screen checks the same {@code end_of_line}, {@code trim_trailing_whitespace} and
+ * {@code insert_final_newline} rules as {@link org.ec4j.linters.TextLinter} does, but it errs on the safe side: a
+ * {@code false} returned by {@link #isClean(byte[], Decoding)} means only that the linter has to run.
+ * <p>
+ * Only charsets encoding CR, LF, space and tab as single ASCII bytes that cannot be a part of a multi-byte sequence
+ * are pre-screened; for any other charset, {@link #isClean(byte[], Decoding)} returns {@code false}.
+ * <p>
+ * Immutable and thus thread safe.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class TextPrescreen {
+
+    private static final byte CR = '\r';
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final byte LF = '\n';
+    /** One more than the greatest byte that needs a closer look: space is {@code 0x20} */
+    private static final long SPACE_PLUS_ONE = 0x2121212121212121L;
+
+    /**
+     * @param properties the {@code .editorconfig} properties applicable to the file to pre-screen
+     * @return a new {@link TextPrescreen} for a file having the given {@code properties}
+     */
+    static TextPrescreen of(ResourceProperties properties) {
+        /* The same defaults as in TextLinter.process() */
+        final EndOfLineValue eol = properties.getValue(PropertyType.end_of_line, null, true);
+        final boolean trim = properties.getValue(PropertyType.trim_trailing_whitespace, Boolean.FALSE, true);
+        final boolean insertFinalNewline = properties.getValue(PropertyType.insert_final_newline, Boolean.FALSE,
+                false);
+        return new TextPrescreen(eol, insertFinalNewline && eol != null, trim);
+    }
+
+    private final boolean allowCr;
+    private final boolean allowLf;
+    private final boolean crlf;
+    private final boolean finalNewline;
+    private final boolean trim;
+
+    TextPrescreen(EndOfLineValue eol, boolean finalNewline, boolean trim) {
+        this.allowCr = eol != EndOfLineValue.lf;
+        this.allowLf = eol != EndOfLineValue.cr;
+        this.crlf = eol == EndOfLineValue.crlf;
+        this.finalNewline = finalNewline;
+        this.trim = trim;
+    }
+
+    /**
+     * @param bytes the raw content of a file
+     * @param decoding the {@link Decoding} the file will be read with
+     * @return {@code true} if {@link org.ec4j.linters.TextLinter} would surely find no violations in the given file;
+     *         {@code false} otherwise
+     */
+    boolean isClean(byte[] bytes, Decoding decoding) {
+        if (!decoding.isAsciiCompatible()) {
+            return false;
+        }
+        final int len = bytes.length;
+        if (finalNewline && len > 0 && bytes[len - 1] != LF && bytes[len - 1] != CR) {
+            return false;
+        }
+        final ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int i = 0;
+        while (i < len) {
+            /*
+             * Skip eight bytes at a time as long as all of them are printable ASCII; the subtraction sets the high bit
+             * of the lowest byte below 0x21 and the OR catches the bytes above 0x7F
+             */
+            while (i + 8 <= len) {
+                final long word = words.getLong(i);
+                if (((word - SPACE_PLUS_ONE | word) & HIGH_BITS) != 0) {
+                    break;
+                }
+                i += 8;
+            }
+            final int end = Math.min(i + 8, len);
+            for (; i < end; i++) {
+                switch (bytes[i]) {
+                    case ' ':
+                    case '\t':
+                        if (trim && (i + 1 == len || bytes[i + 1] == LF || bytes[i + 1] == CR)) {
+                            return false;
+                        }
+                        break;
+                    case CR:
+                        if (!allowCr || (crlf && (i + 1 == len || bytes[i + 1] != LF))) {
+                            return false;
+                        }
+                        break;
+                    case LF:
+                        if (!allowLf || (crlf && (i == 0 || bytes[i - 1] != CR))) {
+                            return false;
+                        }
+                        break;
+                    case (byte) 0x85:
+                        /* NEL is a line terminator for the trailing whitespace regular expression of TextLinter */
+                        if (trim && (decoding.isLatin1() || (i > 0 && bytes[i - 1] == (byte) 0xC2))) {
+                            return false;
+                        }
+                        break;
+                    case (byte) 0xA8:
+                    case (byte) 0xA9:
+                        /* So are the LINE SEPARATOR and PARAGRAPH SEPARATOR encoded as E2 80 A8 and E2 80 A9 in UTF-8 */
+                        if (trim && !decoding.isLatin1() && i > 1 && bytes[i - 1] == (byte) 0x80
+                                && bytes[i - 2] == (byte) 0xE2) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -16,52 +16,47 @@
  */
 package org.ec4j.maven;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.maven.model.Profile;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.shared.utils.io.DirectoryScanner;
-import org.ec4j.core.Cache.Caches;
-import org.ec4j.core.Resource.Charsets;
-import org.ec4j.core.Resource.Resources;
-import org.ec4j.core.ResourceProperties;
-import org.ec4j.core.ResourcePropertiesService;
-import org.ec4j.core.model.PropertyType;
 import org.ec4j.lint.api.Constants;
 import org.ec4j.lint.api.FormatException;
 import org.ec4j.lint.api.Linter;
-import org.ec4j.lint.api.LinterRegistry;
-import org.ec4j.lint.api.Resource;
 import org.ec4j.lint.api.ViolationHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A base for {@link EditorConfigCheckMojo} and {@link EditorConfigFormatMojo}.
+ * A base for {@link EditorConfigCheckMojo}, {@link EditorConfigFormatMojo} and {@link EditorConfigFixMojo}.
  *
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
 public abstract class AbstractEditorConfigMojo extends AbstractMojo {
 
+    /** The standard input read by {@link #readStdin(Object)} for the session held by {@link #stdinSession} */
+    private static byte[] stdin;
+    private static WeakReference<Object> stdinSession = new WeakReference<>(null);
+
     protected final Logger log;
 
+    /** The {@link Logger} of the {@link EditorConfigEngine} of the current execution, if any */
+    private Logger handlerLog;
+
     /**
      * If set to {@code true}, the class path will be scanned for implementations of {@link Linter} and all
      * {@link Linter}s found will be added to {@link #linters} with their default includes and excludes.
@@ -79,12 +74,6 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project.basedir}", required = true, readonly = true)
     File basedir;
 
-    /** The result of {@code basedir.toPath()} */
-    protected Path basedirPath;
-
-    /** The result of {@code Charset.forName(encoding)} */
-    protected Charset charset;
-
     /**
      * The default encoding of files selected by {@link #includes} and {@link #excludes}. This value can be overriden by
      * a {@code charset} property of an {@code .editorconfig} file.
@@ -141,6 +130,35 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
     @Parameter(property = "editorconfig.excludesFile")
     File excludesFile;
 
+    /**
+     * Further directories to walk in the {@code sources} {@link #scope}, such as {@code src/site}. The paths are
+     * relative to the current project's {@code baseDir}.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.extraRoots")
+    List<String> extraRoots = new ArrayList<>();
+
+    /**
+     * A file listing the files to process, one path per line or separated by NUL characters (as produced by e.g.
+     * {@code git diff --name-only -z}), or {@code -} to read the list from the standard input. A relative path of the
+     * list file and the relative paths listed in it are resolved against the directory Maven was started in, so that
+     * all modules of a reactor build share the same list; each module processes the listed files under its
+     * {@link #basedir} and ignores the others. The standard input is read only once per Maven session. The listed paths
+     * are taken verbatim, including any leading or trailing whitespace, except for the line ends when the list is not
+     * NUL separated. The listed files are still filtered through {@link #includes} and the excludes, but
+     * {@link #basedir} is not walked at all. Useful in pre-commit hooks and IDE integrations that know which files have
+     * changed.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.filesFrom")
+    String filesFrom;
+
+    /** The directory Maven was started in */
+    @Parameter(defaultValue = "${session.executionRootDirectory}", readonly = true)
+    String executionRootDirectory;
+
     /**
      * File patterns to include into the set of files to process. The patterns are relative to the current project's
      * {@code baseDir}.
@@ -158,9 +176,69 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
     @Parameter
     List<LinterConfig> linters = new ArrayList<>();
 
+    /**
+     * Files larger than this number of bytes are skipped with a warning and listed at the end of the execution. Useful
+     * to keep some minified or generated multi-megabyte file from stalling the build. If {@code 0}, files of any size
+     * are processed.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.maxFileSize", defaultValue = "0")
+    long maxFileSize = 0;
+
+    /**
+     * The maximum number of times a single file is linted by {@code editorconfig:format}. A file is linted again after
+     * each round of fixes to verify that the fixes did not introduce new violations. The execution fails if a file still
+     * has violations after this many passes or if a pass reproduces the content of some earlier pass, which both mean
+     * that some linters keep undoing each other's fixes. The file is not written in such a case. The pass in which
+     * {@code editorconfig:fix} verifies a fixed file does not count.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.maxFormatPasses", defaultValue = "10")
+    int maxFormatPasses = 10;
+
+    /**
+     * If {@code true}, the raw bytes of each file are first checked for {@code end_of_line},
+     * {@code trim_trailing_whitespace} and {@code insert_final_newline} violations in a single fast pass and
+     * {@link org.ec4j.linters.TextLinter} is run only for files where this pre-screen cannot rule out a violation. The
+     * pre-screen never lets a violation through, so this can only be worth disabling when hunting a bug.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.prescreen", defaultValue = "true")
+    boolean prescreen = true;
+
+    /**
+     * The number of milliseconds all linters together may spend on a single file. A file whose linters did not finish
+     * in time is abandoned with a warning, i.e. it is neither checked nor formatted, and it is listed at the end of the
+     * execution. If {@code 0}, the linters may take as long as they need and they run on the calling thread.
+     * <p>
+     * The linter of an abandoned file is interrupted, but a linter that does not react to interruption keeps running
+     * on a daemon thread until it returns. In a long-lived JVM, such as the {@code mvnd} daemon, such linters outlive
+     * the execution; a warning is logged at the end of each execution while there are any.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.perFileTimeout", defaultValue = "0")
+    long perFileTimeout = 0;
+
     @Component
     MavenProject project;
 
+    /** The projects of the current reactor build; the same {@link List} instance for the whole Maven session */
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true)
+    List<MavenProject> reactorProjects;
+
+    /**
+     * The maximum number of parsed {@code .editorconfig} files to keep in memory. The least recently used ones are
+     * evicted when the limit is reached and parsed again when needed. {@code -1} means no limit.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.propertiesCacheSize", defaultValue = "1024")
+    int propertiesCacheSize = 1024;
+
     /**
      * If {@code true} the execution of the Mojo will be skipped; otherwise the Mojo will be executed.
      *
@@ -169,6 +247,36 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
     @Parameter(property = "editorconfig.skip", defaultValue = "false")
     private boolean skip;
 
+    /**
+     * The maximum number of bytes of file content to read ahead of linting. The files are read and decoded by
+     * {@link #readThreads} background threads while the preceding files are being linted. If {@code 0}, each file is
+     * read just before linting it. A single file larger than this limit is still read.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.readAheadBytes", defaultValue = "16777216")
+    long readAheadBytes = 16 * 1024 * 1024;
+
+    /**
+     * The number of background threads reading files ahead of linting. See also {@link #readAheadBytes}.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.readThreads", defaultValue = "2")
+    int readThreads = 2;
+
+    /**
+     * Which directories to walk when looking for files to process: {@code all} walks the whole {@link #basedir};
+     * {@code sources} walks only the compile and test source roots and the resource directories of the current Maven
+     * project, the {@link #extraRoots} and the files directly in {@link #basedir}, such as {@code pom.xml}. In the
+     * {@code sources} scope, the roots under {@code project.build.directory} (typically generated sources) are not
+     * walked. {@link #includes} and the excludes apply in both scopes. Ignored if {@link #filesFrom} is set.
+     *
+     * @since 0.2.1
+     */
+    @Parameter(property = "editorconfig.scope", defaultValue = "all")
+    String scope = "all";
+
     List<String> modules = new ArrayList<>();
 
     public AbstractEditorConfigMojo() {
@@ -180,29 +288,96 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
         this.log = log;
     }
 
-    private LinterRegistry buildLinterRegistry() {
-        final LinterRegistry.Builder linterRegistryBuilder = LinterRegistry.builder()
-                .log(new Slf4jLintLogger(log));
+    protected abstract ViolationHandler createHandler();
+
+    /**
+     * Creates the {@link ViolationHandler} for the current execution. The default implementation delegates to
+     * {@link #createHandler()}; the handlers created there should log via {@link #getHandlerLog()} rather than via
+     * {@link #log}, so that their messages are logged together with the other messages about the same file.
+     *
+     * @param log the {@link Logger} the new {@link ViolationHandler} should log to; the same as
+     *        {@link #getHandlerLog()}
+     * @return a new {@link ViolationHandler}
+     * @since 0.2.1
+     */
+    protected ViolationHandler createHandler(Logger log) {
+        return createHandler();
+    }
+
+    /**
+     * @return the {@link Logger} collecting the messages about the files processed by the current execution, valid
+     *         while the execution is running; {@link #log} otherwise
+     * @since 0.2.1
+     */
+    protected Logger getHandlerLog() {
+        final Logger result = handlerLog;
+        return result != null ? result : log;
+    }
 
-        if (addLintersFromClassPath) {
-            linterRegistryBuilder.scan(getClass().getClassLoader());
+    /**
+     * Reads the standard input only once per Maven session, so that all modules of a reactor build get the same list
+     * of {@link #filesFrom}.
+     *
+     * @param session an object identifying the current Maven session or {@code null}
+     * @return the content of the standard input
+     * @throws IOException if the standard input cannot be read
+     */
+    static byte[] readStdin(Object session) throws IOException {
+        if (session == null) {
+            return EditorConfigEngine.readAll(System.in);
+        }
+        synchronized (AbstractEditorConfigMojo.class) {
+            if (stdinSession.get() != session) {
+                stdin = EditorConfigEngine.readAll(System.in);
+                stdinSession = new WeakReference<>(session);
+            }
+            return stdin;
         }
+    }
 
-        if (linters != null && !linters.isEmpty()) {
-            for (LinterConfig linter : linters) {
-                if (linter.isEnabled()) {
-                    linterRegistryBuilder.entry(linter.getId(), linter.getClassName(), this.getClass().getClassLoader(),
-                            linter.getIncludes(), linter.getExcludes(), linter.isUseDefaultIncludesAndExcludes());
+    /**
+     * @return the directories to walk in the {@code sources} {@link #scope}
+     */
+    private List<Path> sourceRoots() {
+        final Path basedirPath = basedir.toPath();
+        final List<String> projectRoots = new ArrayList<>();
+        Path buildDirectory = null;
+        if (project != null) {
+            for (Object root : project.getCompileSourceRoots()) {
+                projectRoots.add((String) root);
+            }
+            for (Object root : project.getTestCompileSourceRoots()) {
+                projectRoots.add((String) root);
+            }
+            for (Object resource : project.getResources()) {
+                projectRoots.add(((Resource) resource).getDirectory());
+            }
+            for (Object resource : project.getTestResources()) {
+                projectRoots.add(((Resource) resource).getDirectory());
+            }
+            if (project.getBuild() != null && project.getBuild().getDirectory() != null) {
+                buildDirectory = basedirPath.resolve(project.getBuild().getDirectory()).normalize();
+            }
+        }
+        final List<Path> result = new ArrayList<>();
+        for (String root : projectRoots) {
+            if (root != null) {
+                final Path path = basedirPath.resolve(root).normalize();
+                if (buildDirectory != null && path.startsWith(buildDirectory)) {
+                    log.debug("Ignoring root '{}': under the build directory '{}'", path, buildDirectory);
                 } else {
-                    linterRegistryBuilder.removeEntry(linter.getId());
+                    result.add(path);
                 }
             }
         }
-        return linterRegistryBuilder.build();
+        if (extraRoots != null) {
+            for (String root : extraRoots) {
+                result.add(basedirPath.resolve(root).normalize());
+            }
+        }
+        return result;
     }
 
-    protected abstract ViolationHandler createHandler();
-
     /**
      * Called by Maven for executing the Mojo.
      *
@@ -216,15 +391,43 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
             return;
         }
 
+        final EditorConfigEngine engine = new EditorConfigEngine(log);
         if (this.encoding == null || this.encoding.isEmpty()) {
-            this.charset = Charset.defaultCharset();
+            engine.encoding = Charset.defaultCharset().name();
             log.warn(
                     "Using current platform's default encoding {} to read .editorconfig files. You do not want this. Set either 'project.build.sourceEncoding' or 'editorconfig.encoding' property.",
-                    charset);
+                    engine.encoding);
         } else {
-            this.charset = Charsets.forName(this.encoding);
+            engine.encoding = this.encoding;
         }
-        this.basedirPath = basedir.toPath();
+        engine.addLintersFromClassPath = addLintersFromClassPath;
+        engine.basedir = basedir.toPath();
+        engine.excludeNonSourceFiles = excludeNonSourceFiles;
+        engine.excludes = excludes;
+        engine.excludesFile = excludesFile;
+        engine.failOnNoMatchingProperties = failOnNoMatchingProperties;
+        engine.filesFrom = filesFrom;
+        if (filesFrom != null) {
+            if (executionRootDirectory != null) {
+                engine.filesFromBase = Paths.get(executionRootDirectory);
+            }
+            if ("-".equals(filesFrom)) {
+                try {
+                    engine.filesFromStdin = readStdin(reactorProjects);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Error reading filesFrom '-' from the standard input", e);
+                }
+            }
+        }
+        engine.includes = includes;
+        engine.linters = linters;
+        engine.maxFileSize = maxFileSize;
+        engine.maxFormatPasses = maxFormatPasses;
+        engine.perFileTimeout = perFileTimeout;
+        engine.prescreen = prescreen;
+        engine.propertiesCacheSize = propertiesCacheSize;
+        engine.readAheadBytes = readAheadBytes;
+        engine.readThreads = readThreads;
 
         if (project != null) {
             for (Object m : project.getModules()) {
@@ -236,124 +439,27 @@ public abstract class AbstractEditorConfigMojo extends AbstractMojo {
                 }
             }
         }
+        if (excludeSubmodules) {
+            engine.modules = modules;
+        }
+        if ("sources".equals(scope)) {
+            engine.roots = sourceRoots();
+        } else if (!"all".equals(scope)) {
+            throw new MojoExecutionException(
+                    "Unexpected editorconfig.scope value '" + scope + "'; expected 'all' or 'sources'");
+        }
 
-        LinterRegistry linterRegistry = buildLinterRegistry();
-        final String[] includedFiles = scanIncludedFiles();
-
+        handlerLog = engine.getLog();
         try {
-            final ViolationHandler handler = createHandler();
-
-            final ResourcePropertiesService resourcePropertiesService = ResourcePropertiesService.builder() //
-                    .cache(Caches.permanent()) //
-                    .build();
-            handler.startFiles();
-            boolean propertyMatched = false;
-            for (String includedPath : includedFiles) {
-                final Path file = Paths.get(includedPath); // relative to basedir
-                final Path absFile = basedirPath.resolve(file);
-                log.debug("Processing file '{}'", file);
-                final ResourceProperties editorConfigProperties = resourcePropertiesService
-                        .queryProperties(Resources.ofPath(absFile, charset));
-                if (!editorConfigProperties.getProperties().isEmpty()) {
-                    propertyMatched = true;
-                    final Charset useEncoding = Charsets
-                            .forName(editorConfigProperties.getValue(PropertyType.charset, encoding, true));
-                    if (log.isTraceEnabled()) {
-                        log.trace("Creating a {} for path '{}' with encoding '{}'", Resource.class.getSimpleName(), file,
-                                useEncoding);
-                    }
-                    final Resource resource = new Resource(absFile, file, useEncoding);
-                    final List<Linter> filteredLinters = linterRegistry.filter(file);
-                    if (!filteredLinters.isEmpty()) {
-                        ViolationHandler.ReturnState state = ViolationHandler.ReturnState.RECHECK;
-                        while (state != ViolationHandler.ReturnState.FINISHED) {
-                            for (Linter linter : filteredLinters) {
-                                if (log.isTraceEnabled()) {
-                                    log.trace("Processing file '{}' using linter {}", file, linter.getClass().getName());
-                                }
-                                handler.startFile(resource);
-                                linter.process(resource, editorConfigProperties, handler);
-                            }
-                            state = handler.endFile();
-                        }
-                    }
-                }
-            }
-            if (!propertyMatched) {
-                if (failOnNoMatchingProperties) {
-                    log.error("No .editorconfig properties applicable for files under '{}'", basedirPath);
-                } else {
-                    log.warn("No .editorconfig properties applicable for files under '{}'", basedirPath);
-                }
-            }
-            handler.endFiles();
+            engine.run(createHandler(handlerLog));
         } catch (IOException e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
         } catch (FormatException e) {
             throw new MojoFailureException("\n\n" + e.getMessage() + "\n\n", e);
+        } finally {
+            handlerLog = null;
         }
-
-    }
-
-    /**
-     * A {@link DirectoryScanner} boiler plate.
-     *
-     * @return A {@link String} array of included files
-     */
-    private String[] scanIncludedFiles() {
-        final DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir(basedir);
-        scanner.setIncludes(appendSanitized(includes, new LinkedHashSet<String>()));
-
-        Set<String> excls = new LinkedHashSet<>();
-        if (excludeNonSourceFiles) {
-            excls.addAll(Constants.DEFAULT_EXCLUDES);
-        }
-
-        if (excludesFile != null) {
-            log.debug("Using excludesFile '{}'", excludesFile);
-            try {
-                try (BufferedReader reader = Files.newBufferedReader(excludesFile.toPath(), charset)) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (!line.isEmpty() && !line.startsWith("#")) {
-                            excls.add(line);
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                throw new RuntimeException("Error reading excludesFile '" + excludesFile + "'", e);
-            }
-        }
-
-        if (excludeSubmodules) {
-            {
-                for (String module : modules) {
-                    excls.add(module + "/**");
-                }
-            }
-
-        }
-        scanner.setExcludes(appendSanitized(excludes, excls));
-
-        scanner.scan();
-        return scanner.getIncludedFiles();
-    }
-
-    static String[] appendSanitized(List<String> input, Collection<String> result) {
-        if (input == null || input.size() == 0) {
-            return result.toArray(new String[0]);
-        }
-
-        for (String item : input) {
-            if (item != null) {
-                item = item.trim();
-                if (!item.isEmpty()) {
-                    result.add(item);
-                }
-            }
-        }
-        return result.toArray(new String[0]);
     }
-
 }
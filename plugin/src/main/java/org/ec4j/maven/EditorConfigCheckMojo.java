@@ -56,6 +56,6 @@ public class EditorConfigCheckMojo extends AbstractEditorConfigMojo {
     @Override
     protected ViolationHandler createHandler() {
         return new ViolationCollector(failOnFormatViolation, "mvn editorconfig:format",
-                new Slf4jLintLogger(log));
+                new Slf4jLintLogger(getHandlerLog()));
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.ec4j.lint.api.FormattingHandler;
+import org.ec4j.lint.api.ViolationHandler;
+import org.slf4j.Logger;
+
+/**
+ * Formats a set of files so that they comply with rules defined in {@code .editorconfig} files and verifies the result
+ * in the same run. Each modified file is linted once more right after it was written; violations still present then
+ * cannot be fixed automatically and they cause the build to fail. This replaces running {@code editorconfig:format}
+ * followed by {@code editorconfig:check}, which scans and reads the whole tree twice.
+ *
+ * @since 0.2.1
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@Mojo(defaultPhase = LifecyclePhase.NONE, name = "fix", threadSafe = true)
+public class EditorConfigFixMojo extends EditorConfigFormatMojo {
+
+    public EditorConfigFixMojo() {
+        super();
+    }
+
+    EditorConfigFixMojo(Logger log) {
+        super(log);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected ViolationHandler createHandler() {
+        final Slf4jLintLogger lintLogger = new Slf4jLintLogger(getHandlerLog());
+        return new FixingHandler(new FormattingHandler(backup, backupSuffix, lintLogger), lintLogger);
+    }
+
+}
@@ -62,7 +62,7 @@ public class EditorConfigFormatMojo extends AbstractEditorConfigMojo {
     @Override
     protected ViolationHandler createHandler() {
         return new FormattingHandler(backup, backupSuffix,
-                new Slf4jLintLogger(log));
+                new Slf4jLintLogger(getHandlerLog()));
     }
 
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EditorConfigCliTest {
+
+    @Test
+    public void checkAndFormat() throws Exception {
+        final Path testingProjectDir = Paths.get("target/defaults-cli-" + UUID.randomUUID());
+        FileUtils.copyDirectory(Paths.get("src/test/projects/defaults").toFile(), testingProjectDir.toFile());
+        final String basedirArg = "--basedir=" + testingProjectDir;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assertions.assertThat(run(out, err, "check", basedirArg, "--excludes=log.txt"))
+                .isEqualTo(EditorConfigCli.EXIT_VIOLATIONS);
+        Assertions.assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).contains("[INFO] Checked 6 files");
+        Assertions.assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8)) //
+                .contains("[ERROR] README.adoc@2,1: Delete 2 characters - violates trim_trailing_whitespace = true") //
+                .contains("java -jar editorconfig-cli.jar format");
+
+        Assertions.assertThat(run(out, err, "format", basedirArg, "--quiet")).isEqualTo(EditorConfigCli.EXIT_OK);
+        Assertions.assertThat(run(out, err, "check", basedirArg)).isEqualTo(EditorConfigCli.EXIT_OK);
+    }
+
+    @Test
+    public void unknownOption() throws Exception {
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assertions.assertThat(run(new ByteArrayOutputStream(), err, "check", "--foo"))
+                .isEqualTo(EditorConfigCli.EXIT_ERROR);
+        Assertions.assertThat(new String(err.toByteArray(), StandardCharsets.UTF_8)) //
+                .startsWith("Unknown option '--foo'") //
+                .contains(EditorConfigCli.USAGE);
+    }
+
+    private static int run(ByteArrayOutputStream out, ByteArrayOutputStream err, String... args) {
+        return EditorConfigCli.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+}
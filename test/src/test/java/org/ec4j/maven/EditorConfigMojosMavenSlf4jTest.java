@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Runs the mojos with the SLF4J 1.7 API Maven 3.x provides to plugins rather than with the SLF4J 2 API used by the
+ * other tests. Run by the {@code maven-slf4j} execution of {@code maven-surefire-plugin} in this module.
+ */
+public class EditorConfigMojosMavenSlf4jTest {
+
+    static class RecordingLogger extends AbstractSlf4jLogger {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        RecordingLogger() {
+            super(RecordingLogger.class.getName());
+        }
+
+        @Override
+        protected void handle(int level, String messagePattern, Object[] arguments) {
+            messages.add("[" + levelName(level) + "] "
+                    + MessageFormatter.arrayFormat(messagePattern, arguments).getMessage());
+        }
+
+        @Override
+        protected boolean isEnabled(int level) {
+            return level >= DEBUG;
+        }
+    }
+
+    @Test
+    public void checkAndFormat() throws Exception {
+        Assertions.assertThatThrownBy(() -> Class.forName("org.slf4j.helpers.LegacyAbstractLogger"))
+                .as("SLF4J 2 should not be on the class path of this test")
+                .isInstanceOf(ClassNotFoundException.class);
+
+        final Path testingProjectDir = Paths.get("target/maven-slf4j-" + UUID.randomUUID()).toAbsolutePath();
+        FileUtils.copyDirectory(Paths.get("src/test/projects/defaults").toFile(), testingProjectDir.toFile());
+
+        final RecordingLogger formatLog = new RecordingLogger();
+        final EditorConfigFormatMojo format = new EditorConfigFormatMojo(formatLog);
+        format.encoding = StandardCharsets.UTF_8.name();
+        format.basedir = testingProjectDir.toFile();
+        format.excludes = Arrays.asList("log.txt");
+        format.execute();
+        Assertions.assertThat(formatLog.messages).contains("[INFO] Formatted 3 out of 6 files");
+
+        final RecordingLogger checkLog = new RecordingLogger();
+        final EditorConfigCheckMojo check = new EditorConfigCheckMojo(checkLog);
+        check.encoding = StandardCharsets.UTF_8.name();
+        check.basedir = testingProjectDir.toFile();
+        check.excludes = Arrays.asList("log.txt");
+        check.execute();
+        Assertions.assertThat(checkLog.messages).contains("[INFO] Checked 6 files");
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Runs {@code check} and {@code format} against generated projects and asserts throughput, heap and allocation budgets.
+ * {@link #allocationBudget()} runs in every build against a small project; {@link #checkAndFormat()} uses a large
+ * project and it is enabled by the {@code perf} profile of this module:
+ *
+ * <pre>
+ * mvn verify -Pperf -pl test
+ * </pre>
+ *
+ * The size of the generated project and the budgets can be tuned via the {@code editorconfig.perf.*} system properties
+ * read in this class.
+ */
+public class EditorConfigMojosPerformanceTest {
+
+    /** Reports the measurements; the mojos under test log to their own {@link QuietLogger}s */
+    private static final Logger logger = LoggerFactory.getLogger(EditorConfigMojosPerformanceTest.class);
+
+    /** Every n-th file contains a violation */
+    private static final int VIOLATION_EVERY = 20;
+
+    private static final int FILES = Integer.getInteger("editorconfig.perf.files", 100_000);
+    private static final int SMALL_FILES = 2000;
+    private static final int LARGE_FILES = Integer.getInteger("editorconfig.perf.largeFiles", 8);
+    private static final int LARGE_FILE_BYTES = Integer.getInteger("editorconfig.perf.largeFileBytes", 4 * 1024 * 1024);
+    private static final int DEPTH = Integer.getInteger("editorconfig.perf.depth", 8);
+    private static final int FILES_PER_DIR = 16;
+    /** Every n-th directory has its own {@code .editorconfig} file */
+    private static final int EDITORCONFIG_EVERY = 4;
+
+    private static final int MIN_FILES_PER_SECOND = Integer.getInteger("editorconfig.perf.minFilesPerSecond", 1000);
+    private static final long MAX_HEAP_BYTES = Long.getLong("editorconfig.perf.maxHeapBytes", 1024L * 1024 * 1024);
+    /**
+     * Bytes allocated per file, on average, by the mojo thread and by the threads started while the mojo was running,
+     * such as the read ahead threads. This includes the linters' own allocations, which are proportional to the file
+     * size, and the one-time costs like scanning the class path for linters. The default is about 25% above the
+     * 18.3 KiB per file {@link #allocationBudget()} measures on Java 17.
+     */
+    private static final long MAX_ALLOCATED_BYTES_PER_FILE = Long.getLong("editorconfig.perf.maxAllocatedBytesPerFile",
+            23 * 1024);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void allocationBudget() throws Exception {
+        final GeneratedProject project = new GeneratedProject(tempDir, SMALL_FILES, 0).generate();
+        final int checkedFiles = project.files + project.editorConfigFiles;
+
+        new Run(new EditorConfigCheckMojo(new QuietLogger()), project.dir).execute() //
+                .assertAllocationBudget("check", checkedFiles) //
+                .assertLogText("[INFO] Checked " + checkedFiles + " files");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "editorconfig.perf", matches = "true")
+    public void checkAndFormat() throws Exception {
+        final GeneratedProject project = new GeneratedProject(tempDir, FILES, LARGE_FILES).generate();
+        final int checkedFiles = project.files + project.editorConfigFiles;
+
+        final Run check = new Run(new EditorConfigCheckMojo(new QuietLogger()), project.dir).execute();
+        check.assertBudgets("check", checkedFiles) //
+                .assertLogText("[INFO] BUILD FAILURE") //
+                .assertLogText("[INFO] Checked " + checkedFiles + " files");
+
+        final Run format = new Run(new EditorConfigFormatMojo(new QuietLogger()), project.dir).execute();
+        format.assertBudgets("format", checkedFiles) //
+                .assertLogText("[INFO] Formatted " + project.violations + " out of " + checkedFiles + " files");
+
+        final Run recheck = new Run(new EditorConfigCheckMojo(new QuietLogger()), project.dir).execute();
+        recheck.assertBudgets("check after format", checkedFiles) //
+                .assertNoLogText("[INFO] BUILD FAILURE") //
+                .assertLogText("[INFO] Checked " + checkedFiles + " files");
+    }
+
+    /**
+     * A synthetic project with nested directories, many {@code .editorconfig} files, some violations and a few large
+     * files.
+     */
+    static class GeneratedProject {
+        private final Path dir;
+        private int editorConfigFiles;
+        private int files;
+        private final int largeFileCount;
+        private final Random random = new Random(42);
+        private final int smallFileCount;
+        private int violations;
+
+        GeneratedProject(Path dir, int smallFileCount, int largeFileCount) {
+            this.dir = dir;
+            this.smallFileCount = smallFileCount;
+            this.largeFileCount = largeFileCount;
+        }
+
+        GeneratedProject generate() throws IOException {
+            Files.createDirectories(dir);
+            write(dir.resolve(".editorconfig"), "root = true\n\n" //
+                    + "[*]\n" //
+                    + "end_of_line = lf\n" //
+                    + "trim_trailing_whitespace = true\n" //
+                    + "insert_final_newline = true\n" //
+                    + "charset = utf-8\n\n" //
+                    + "[*.{xml,xsl}]\n" //
+                    + "indent_style = space\n" //
+                    + "indent_size = 2\n");
+            editorConfigFiles++;
+
+            int dirIndex = 0;
+            while (files < smallFileCount) {
+                final Path d = directory(dirIndex);
+                Files.createDirectories(d);
+                if (dirIndex % EDITORCONFIG_EVERY == 1) {
+                    write(d.resolve(".editorconfig"), nestedEditorConfig(dirIndex));
+                    editorConfigFiles++;
+                }
+                for (int i = 0; i < FILES_PER_DIR && files < smallFileCount; i++) {
+                    final boolean bad = files % VIOLATION_EVERY == VIOLATION_EVERY - 1;
+                    if (bad) {
+                        violations++;
+                    }
+                    switch (files % 4) {
+                        case 0:
+                            write(d.resolve("File" + files + ".java"), java(files, bad));
+                            break;
+                        case 1:
+                            write(d.resolve("file-" + files + ".xml"), xml(files, bad));
+                            break;
+                        case 2:
+                            write(d.resolve("file-" + files + ".adoc"), adoc(files, bad));
+                            break;
+                        default:
+                            write(d.resolve("file-" + files + ".properties"), properties(files, bad));
+                            break;
+                    }
+                    files++;
+                }
+                dirIndex++;
+            }
+
+            for (int i = 0; i < largeFileCount; i++) {
+                writeLarge(dir.resolve("large-" + i + ".txt"));
+                files++;
+            }
+            return this;
+        }
+
+        private String adoc(int i, boolean bad) {
+            return "= Document " + i + "\n\nSome text with a non-ASCII character: éè\n"
+                    + (bad ? "A line with trailing whitespace  \n" : "") + "\nThe end\n";
+        }
+
+        private Path directory(int dirIndex) {
+            /* Spread the directories over a tree of the configured depth */
+            Path result = dir;
+            int rest = dirIndex;
+            for (int level = 0; level < DEPTH && rest > 0; level++) {
+                result = result.resolve("d" + (rest % 8));
+                rest /= 8;
+            }
+            return result;
+        }
+
+        private String java(int i, boolean bad) {
+            return "package org.ec4j.maven.perf;\n\n" //
+                    + "public class File" + i + " {\n" //
+                    + "    public int value() {" + (bad ? "  " : "") + "\n" //
+                    + "        return " + random.nextInt() + ";\n" //
+                    + "    }\n" //
+                    + "}\n";
+        }
+
+        private String nestedEditorConfig(int dirIndex) {
+            return "[{*.java,*.adoc,*.md,*.txt}]\n" //
+                    + "indent_style = space\n" //
+                    + "indent_size = 4\n\n" //
+                    + "[{pom.xml,*.xsd,*.xml}]\n" //
+                    + "indent_size = 2\n\n" //
+                    + "[*.properties]\n" //
+                    + "charset = " + (dirIndex % 2 == 0 ? "iso-8859-1" : "utf-8") + "\n";
+        }
+
+        private String properties(int i, boolean bad) {
+            return "# Properties " + i + "\nkey" + i + " = value" + (bad ? " " : "") + "\n";
+        }
+
+        private void write(Path path, String content) throws IOException {
+            Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeLarge(Path path) throws IOException {
+            final String line = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor\n";
+            try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                for (int written = 0; written < LARGE_FILE_BYTES; written += line.length()) {
+                    w.write(line);
+                }
+            }
+        }
+
+        private String xml(int i, boolean bad) {
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+                    + "<root id=\"" + i + "\">\n" //
+                    + (bad ? "   " : "  ") + "<item>" + random.nextInt() + "</item>\n" //
+                    + "  <item>\n" //
+                    + "    <nested/>\n" //
+                    + "  </item>\n" //
+                    + "</root>\n";
+        }
+    }
+
+    static class Run {
+        private long allocatedBytes = -1;
+        private long elapsedNanos;
+        private final QuietLogger log;
+        private final AbstractEditorConfigMojo mojo;
+        private long peakHeapBytes;
+
+        Run(AbstractEditorConfigMojo mojo, Path basedir) {
+            this.mojo = mojo;
+            this.log = (QuietLogger) mojo.log;
+            mojo.encoding = StandardCharsets.UTF_8.name();
+            mojo.basedir = basedir.toFile();
+            mojo.excludes = Arrays.asList("log.txt");
+        }
+
+        Run assertAllocationBudget(String label, int files) {
+            final long allocatedBytesPerFile = allocatedBytes / files;
+            logger.info("{}: {} files, allocated {} bytes per file", label, files, allocatedBytesPerFile);
+            if (allocatedBytes >= 0) {
+                Assertions.assertThat(allocatedBytesPerFile).as("%s bytes allocated per file", label)
+                        .isLessThanOrEqualTo(MAX_ALLOCATED_BYTES_PER_FILE);
+            }
+            return this;
+        }
+
+        Run assertBudgets(String label, int files) {
+            final double filesPerSecond = files / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+            logger.info("{}: {} files in {} ms ({} files/s), peak heap {} MiB", label, files,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(filesPerSecond),
+                    peakHeapBytes / (1024 * 1024));
+            Assertions.assertThat(filesPerSecond).as("%s throughput in files per second", label)
+                    .isGreaterThanOrEqualTo(MIN_FILES_PER_SECOND);
+            Assertions.assertThat(peakHeapBytes).as("%s peak heap usage in bytes", label)
+                    .isLessThanOrEqualTo(MAX_HEAP_BYTES);
+            return assertAllocationBudget(label, files);
+        }
+
+        Run assertLogText(String message) {
+            Assertions.assertThat(log.messages).contains(message);
+            return this;
+        }
+
+        Run assertNoLogText(String message) {
+            Assertions.assertThat(log.messages).doesNotContain(message);
+            return this;
+        }
+
+        Run execute() {
+            final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans();
+            System.gc();
+            for (MemoryPoolMXBean pool : heapPools) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            final long start = System.nanoTime();
+            try (AllocationMeter meter = AllocationMeter.start()) {
+                try {
+                    mojo.execute();
+                } catch (MojoExecutionException e) {
+                    log.info("BUILD ERROR");
+                } catch (MojoFailureException e) {
+                    log.info("BUILD FAILURE");
+                }
+                elapsedNanos = System.nanoTime() - start;
+                if (meter != null) {
+                    allocatedBytes = meter.allocatedBytes();
+                }
+            }
+            for (MemoryPoolMXBean pool : heapPools) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peakHeapBytes += pool.getPeakUsage().getUsed();
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by all threads of the JVM, including the ones started and stopped in the meantime.
+     * The JVM reports allocations only for live threads, hence the threads are sampled periodically; the allocations
+     * of a thread after the last sample before it terminated are missed, which is negligible for the read ahead threads
+     * that are idle when they are stopped.
+     */
+    static class AllocationMeter implements AutoCloseable {
+        private static final long SAMPLE_PERIOD_MILLIS = 10;
+
+        /**
+         * @return a new {@link AllocationMeter} or {@code null} if the JVM cannot measure per thread allocations
+         */
+        static AllocationMeter start() {
+            final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+                if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                    return new AllocationMeter(sunThreads);
+                }
+            }
+            return null;
+        }
+
+        private final Map<Long, Long> baseline = new HashMap<>();
+        private final Map<Long, Long> latest = new ConcurrentHashMap<>();
+        private final ScheduledExecutorService sampler;
+        private volatile long samplerThreadId = -1;
+        private final com.sun.management.ThreadMXBean threads;
+
+        AllocationMeter(com.sun.management.ThreadMXBean threads) {
+            this.threads = threads;
+            final long[] ids = threads.getAllThreadIds();
+            final long[] bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) {
+                    baseline.put(ids[i], bytes[i]);
+                }
+            }
+            this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread t = new Thread(r, "allocation-sampler");
+                t.setDaemon(true);
+                samplerThreadId = t.getId();
+                return t;
+            });
+            sampler.scheduleAtFixedRate(this::sample, SAMPLE_PERIOD_MILLIS, SAMPLE_PERIOD_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            final long[] ids = threads.getAllThreadIds();
+            final long[] bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0 && ids[i] != samplerThreadId) {
+                    latest.put(ids[i], bytes[i]);
+                }
+            }
+        }
+
+        /**
+         * @return the number of bytes allocated since this {@link AllocationMeter} was started
+         */
+        long allocatedBytes() {
+            sample();
+            long result = 0;
+            for (Map.Entry<Long, Long> e : latest.entrySet()) {
+                final Long before = baseline.get(e.getKey());
+                result += e.getValue() - (before == null ? 0 : before.longValue());
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Records only INFO and above so that logging does not dominate the measured time and heap.
+     */
+    static class QuietLogger extends AbstractSlf4jLogger {
+
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        QuietLogger() {
+            super(QuietLogger.class.getName());
+        }
+
+        @Override
+        protected void handle(int level, String messagePattern, Object[] arguments) {
+            messages.add(String.format("[%s] %s", levelName(level),
+                    MessageFormatter.arrayFormat(messagePattern, arguments).getMessage().trim()));
+        }
+
+        @Override
+        protected boolean isEnabled(int level) {
+            return level >= INFO;
+        }
+    }
+
+}
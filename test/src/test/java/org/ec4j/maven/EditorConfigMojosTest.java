@@ -16,25 +16,38 @@
  */
 package org.ec4j.maven;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
 import org.assertj.core.api.Assertions;
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.lint.api.Edit;
+import org.ec4j.lint.api.Linter;
+import org.ec4j.lint.api.Location;
+import org.ec4j.lint.api.Resource;
+import org.ec4j.lint.api.Violation;
+import org.ec4j.lint.api.ViolationCollector;
+import org.ec4j.lint.api.ViolationHandler;
 import org.junit.jupiter.api.Test;
-import org.slf4j.Marker;
-import org.slf4j.event.Level;
-import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.Logger;
 import org.slf4j.helpers.MessageFormatter;
 
 public class EditorConfigMojosTest {
@@ -51,13 +64,15 @@ public class EditorConfigMojosTest {
 
         mavenExec //
                 .execute() //
-                .assertLogText("[TRACE] Processing file '.editorconfig' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file '.editorconfig': no violations found by the pre-screen") //
                 .assertLogText("[DEBUG] No formatting violations found in file '.editorconfig'") //
-                .assertLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'pom.xml': no violations found by the pre-screen") //
                 .assertLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.XmlLinter") //
                 .assertLogText("[DEBUG] No formatting violations found in file 'pom.xml'") //
                 .assertLogText(
-                        "[TRACE] Processing file 'src/main/java/org/ec4j/maven/it/defaults/App.java' using linter org.ec4j.linters.TextLinter"
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'src/main/java/org/ec4j/maven/it/defaults/App.java': no violations found by the pre-screen"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
                         "[DEBUG] No formatting violations found in file 'src/main/java/org/ec4j/maven/it/defaults/App.java'"
@@ -69,7 +84,7 @@ public class EditorConfigMojosTest {
                         "[ERROR] src/main/resources/trailing-whitespace.txt@1,7: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
-                        "[TRACE] Processing file 'src/main/resources/indent.xml' using linter org.ec4j.linters.TextLinter"
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'src/main/resources/indent.xml': no violations found by the pre-screen"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
                         "[TRACE] Processing file 'src/main/resources/indent.xml' using linter org.ec4j.linters.XmlLinter"
@@ -84,6 +99,7 @@ public class EditorConfigMojosTest {
                 .assertLogText(
                         "[ERROR] README.adoc@2,1: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter") //
                 .assertLogText("[INFO] Checked 6 files") //
+                .assertLogText("[DEBUG] .editorconfig cache: 2 hits, 1 miss, 0 evictions") //
                 .assertLogText("[INFO] BUILD FAILURE") //
                 .assertLogText("There are .editorconfig violations. You may want to run") //
                 .assertLogText("    mvn editorconfig:format") //
@@ -91,6 +107,109 @@ public class EditorConfigMojosTest {
         ;
     }
 
+    @Test
+    public void propertiesCacheEviction() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        Files.write(mavenExec.mojo.basedir.toPath().resolve("src/main/resources/.editorconfig"),
+                "[*.txt]\ntrim_trailing_whitespace = false\n".getBytes(StandardCharsets.UTF_8));
+        mavenExec.mojo.propertiesCacheSize = 1;
+
+        mavenExec //
+                .execute() //
+                .assertNoLogText(
+                        "[ERROR] src/main/resources/trailing-whitespace.txt@1,7: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter"
+                                .replace('/', File.separatorChar)) //
+                .assertLogText("[INFO] Checked 7 files") //
+                .assertLogText(
+                        "[INFO] .editorconfig cache: 1 hit, 3 misses, 2 evictions; consider increasing propertiesCacheSize 1 to avoid parsing the same .editorconfig files repeatedly") //
+        ;
+    }
+
+    @Test
+    public void checkLogGroupedPerFile() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        final Path bomTxt = mavenExec.mojo.basedir.toPath().resolve("bom.txt");
+        Files.write(bomTxt, "\uFEFFtrailing  \n".getBytes(StandardCharsets.UTF_8));
+        /* The whole project fits into the read ahead limit, so all files are scheduled before the first is linted */
+        Assertions.assertThat(mavenExec.mojo.readAheadBytes).isGreaterThan(0);
+
+        final LogRecorder log = mavenExec //
+                .execute() //
+                .assertLogText(
+                        "[WARN] File 'bom.txt' starts with a UTF-8 Byte Order Mark (BOM) but its charset is 'UTF-8'; consider using utf-8-bom") //
+                .assertLogText(
+                        "[ERROR] bom.txt@1,10: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter") //
+        ;
+        final String processing = "[DEBUG] Processing file '";
+        String currentFile = null;
+        int violationCount = 0;
+        for (String message : log.messages) {
+            if (message.startsWith(processing)) {
+                currentFile = message.substring(processing.length(), message.indexOf('\'', processing.length()));
+            } else if (message.startsWith("[ERROR] ") && message.contains("@")) {
+                Assertions.assertThat(message).as("a violation logged within the block of file '%s'", currentFile)
+                        .startsWith("[ERROR] " + currentFile + "@");
+                violationCount++;
+            } else if (message.startsWith("[WARN] File '")) {
+                Assertions.assertThat(message).startsWith("[WARN] File '" + currentFile + "'");
+            }
+        }
+        Assertions.assertThat(violationCount).isEqualTo(5);
+    }
+
+    @Test
+    public void checkWithoutReadAhead() throws Exception {
+
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        mavenExec.mojo.readAheadBytes = 0;
+
+        mavenExec //
+                .execute() //
+                .assertLogText(
+                        "[ERROR] src/main/resources/indent.xml@24,3: Delete 2 characters - violates indent_style = space, indent_size = 2, reported by org.ec4j.linters.XmlLinter"
+                                .replace('/', File.separatorChar)) //
+                .assertLogText(
+                        "[ERROR] README.adoc@2,1: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter") //
+                .assertLogText("[INFO] Checked 6 files") //
+                .assertLogText("[INFO] BUILD FAILURE") //
+        ;
+    }
+
+    @Test
+    public void checkWithLimits() throws Exception {
+
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        mavenExec.mojo.maxFileSize = 1000;
+        mavenExec.mojo.perFileTimeout = 60000;
+
+        mavenExec //
+                .execute() //
+                .assertLogText("[WARN] Skipping file 'pom.xml': its size 1978 bytes exceeds maxFileSize 1000 bytes") //
+                .assertNoLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.XmlLinter") //
+                .assertLogText(
+                        "[ERROR] src/main/resources/indent.xml@24,3: Delete 2 characters - violates indent_style = space, indent_size = 2, reported by org.ec4j.linters.XmlLinter"
+                                .replace('/', File.separatorChar)) //
+                .assertLogText(
+                        "[ERROR] README.adoc@2,1: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter") //
+                .assertLogText("[WARN] Skipped 1 file larger than maxFileSize 1000 bytes: [pom.xml]") //
+                .assertNoLogText("[WARN] Abandoned") //
+                .assertLogText("[INFO] Checked 5 files") //
+                .assertLogText("[INFO] BUILD FAILURE") //
+        ;
+    }
+
     @Test
     public void allLintersDisabled() throws Exception {
 
@@ -107,6 +226,37 @@ public class EditorConfigMojosTest {
                 .assertErrorFreeLog();
     }
 
+    @Test
+    public void formatPasses() throws Exception {
+        /* Two violations on the same line cannot be fixed in a single pass */
+        final String xml = "<root>\n   <a/>  \n</root>\n";
+
+        final Verifier<EditorConfigFormatMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigFormatMojo.class,
+                Arrays.asList("log.txt"));
+        final Path recheckXml = mavenExec.mojo.basedir.toPath().resolve("recheck.xml");
+        Files.write(recheckXml, xml.getBytes(StandardCharsets.UTF_8));
+        mavenExec.mojo.includes = Arrays.asList("recheck.xml");
+
+        mavenExec //
+                .execute() //
+                .assertErrorFreeLog() //
+                .assertLogText("[DEBUG] 1 file linted in 2 passes") //
+        ;
+        Assertions.assertThat(recheckXml).hasContent("<root>\n  <a/>\n</root>\n");
+
+        Files.write(recheckXml, xml.getBytes(StandardCharsets.UTF_8));
+        mavenExec.mojo.maxFormatPasses = 1;
+        mavenExec //
+                .execute() //
+                .assertLogText("[INFO] BUILD ERROR") //
+                .assertLogText(
+                        "File 'recheck.xml' still has formatting violations after 1 pass of the linters org.ec4j.linters.TextLinter, org.ec4j.linters.XmlLinter; you may want to increase maxFormatPasses") //
+        ;
+        Assertions.assertThat(recheckXml).hasContent(xml);
+    }
+
     @Test
     public void encoding() throws Exception {
         final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<EditorConfigCheckMojo>(
@@ -117,11 +267,12 @@ public class EditorConfigMojosTest {
         mavenExec //
                 .execute() //
                 .assertErrorFreeLog() //
-                .assertLogText("[TRACE] Processing file '.editorconfig' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file '.editorconfig': no violations found by the pre-screen") //
                 .assertLogText("[TRACE] Creating a Resource for path '.editorconfig' with encoding 'UTF-8'") //
                 .assertLogText("[DEBUG] No formatting violations found in file '.editorconfig'") //
                 .assertLogText(
-                        "[TRACE] Processing file 'src/main/resources/simplelogger.properties' using linter org.ec4j.linters.TextLinter"
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'src/main/resources/simplelogger.properties': no violations found by the pre-screen"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
                         "[TRACE] Creating a Resource for path 'src/main/resources/simplelogger.properties' with encoding 'ISO-8859-1'"
@@ -145,13 +296,15 @@ public class EditorConfigMojosTest {
         mavenExec //
                 .execute() //
                 .assertErrorFreeLog() //
-                .assertLogText("[TRACE] Processing file '.editorconfig' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file '.editorconfig': no violations found by the pre-screen") //
                 .assertLogText("[DEBUG] No formatting violations found in file '.editorconfig'") //
-                .assertLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'pom.xml': no violations found by the pre-screen") //
                 .assertLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.XmlLinter") //
                 .assertLogText("[DEBUG] No formatting violations found in file 'pom.xml'") //
                 .assertLogText(
-                        "[TRACE] Processing file 'src/main/java/org/ec4j/maven/it/defaults/App.java' using linter org.ec4j.linters.TextLinter"
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'src/main/java/org/ec4j/maven/it/defaults/App.java': no violations found by the pre-screen"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
                         "[DEBUG] No formatting violations found in file 'src/main/java/org/ec4j/maven/it/defaults/App.java'"
@@ -163,7 +316,7 @@ public class EditorConfigMojosTest {
                         "[INFO] src/main/resources/trailing-whitespace.txt@1,7: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
-                        "[TRACE] Processing file 'src/main/resources/indent.xml' using linter org.ec4j.linters.TextLinter"
+                        "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'src/main/resources/indent.xml': no violations found by the pre-screen"
                                 .replace('/', File.separatorChar)) //
                 .assertLogText(
                         "[TRACE] Processing file 'src/main/resources/indent.xml' using linter org.ec4j.linters.XmlLinter"
@@ -188,6 +341,261 @@ public class EditorConfigMojosTest {
 
     }
 
+    @Test
+    public void fix() throws Exception {
+        final Verifier<EditorConfigFixMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigFixMojo.class,
+                Arrays.asList("log.txt"));
+        final Path expectedBaseDir = basedir.resolve("src/test/projects/defaults-formatted");
+
+        mavenExec //
+                .execute() //
+                .assertErrorFreeLog() //
+                .assertLogText(
+                        "[INFO] README.adoc@2,1: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter") //
+                .assertLogText("[INFO] Formatted 3 out of 6 files") //
+                .assertLogText("[INFO] Verified 3 fixed files") //
+                .assertLogText("[DEBUG] 3 files linted in 1 pass") //
+                .assertLogText("[DEBUG] 3 files linted in 2 passes") //
+                .assertFilesEqual(expectedBaseDir,
+                        ".editorconfig",
+                        "pom.xml",
+                        "README.adoc",
+                        "src/main/java/org/ec4j/maven/it/defaults/App.java",
+                        "src/main/resources/indent.xml",
+                        "src/main/resources/trailing-whitespace.txt");
+
+    }
+
+    @Test
+    public void fixPasses() throws Exception {
+        {
+            /* The verification pass does not count against maxFormatPasses */
+            final Verifier<EditorConfigFixMojo> mavenExec = new Verifier<>(
+                    "defaults",
+                    EditorConfigFixMojo.class,
+                    Arrays.asList("log.txt"));
+            mavenExec.mojo.maxFormatPasses = 1;
+            mavenExec //
+                    .execute() //
+                    .assertErrorFreeLog() //
+                    .assertLogText("[INFO] Formatted 3 out of 6 files") //
+                    .assertLogText("[INFO] Verified 3 fixed files") //
+            ;
+        }
+        {
+            /* Two violations on the same line cannot be fixed in a single pass */
+            final String xml = "<root>\n   <a/>  \n</root>\n";
+            final Verifier<EditorConfigFixMojo> mavenExec = new Verifier<>(
+                    "defaults",
+                    EditorConfigFixMojo.class,
+                    Arrays.asList("log.txt"));
+            final Path recheckXml = mavenExec.mojo.basedir.toPath().resolve("recheck.xml");
+            Files.write(recheckXml, xml.getBytes(StandardCharsets.UTF_8));
+            mavenExec.mojo.includes = Arrays.asList("recheck.xml");
+            mavenExec.mojo.maxFormatPasses = 2;
+            mavenExec //
+                    .execute() //
+                    .assertErrorFreeLog() //
+                    .assertLogText("[INFO] Verified 1 fixed file") //
+                    .assertLogText("[DEBUG] 1 file linted in 3 passes") //
+            ;
+            Assertions.assertThat(recheckXml).hasContent("<root>\n  <a/>\n</root>\n");
+        }
+    }
+
+    @Test
+    public void fixUnfixable() throws Exception {
+        final Verifier<EditorConfigFixMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigFixMojo.class,
+                Arrays.asList("log.txt"));
+        final LinterConfig unfixable = new LinterConfig();
+        unfixable.setClassName(UnfixableLinter.class.getName());
+        unfixable.setIncludes(new String[] { "**/*.txt" });
+        mavenExec.mojo.linters = Arrays.asList(unfixable);
+
+        /* The fix does not change the file, which is an unfixable violation rather than linters undoing each other */
+        mavenExec //
+                .execute() //
+                .assertLogText("[INFO] BUILD FAILURE") //
+                .assertLogText(
+                        "[ERROR] src/main/resources/trailing-whitespace.txt@1,1: Do nothing - violates unfixable = true, reported by org.ec4j.maven.EditorConfigMojosTest$UnfixableLinter") //
+                .assertLogText("[INFO] Verified 3 fixed files") //
+                .assertLogText("1 .editorconfig violation in 1 file could not be fixed automatically; see the errors above") //
+        ;
+    }
+
+    @Test
+    public void fixWithTimeout() throws Exception {
+        final Verifier<EditorConfigFixMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigFixMojo.class,
+                Arrays.asList("log.txt"));
+        final LinterConfig blocking = new LinterConfig();
+        blocking.setClassName(BlockingLinter.class.getName());
+        blocking.setIncludes(new String[] { "**/README.adoc" });
+        mavenExec.mojo.linters = Arrays.asList(blocking);
+        mavenExec.mojo.perFileTimeout = 500;
+        final Path expectedBaseDir = basedir.resolve("src/test/projects/defaults-formatted");
+
+        try {
+            /*
+             * README.adoc is fixed in the first pass and abandoned in the verification pass, where BlockingLinter
+             * blocks. The files fixed after it must be verified as usual
+             */
+            mavenExec //
+                    .execute() //
+                    .assertErrorFreeLog() //
+                    .assertLogText(
+                            "[WARN] Abandoning file 'README.adoc': linter org.ec4j.maven.EditorConfigMojosTest$BlockingLinter did not finish within perFileTimeout 500 ms") //
+                    .assertLogText("[WARN] Abandoned 1 file not linted within perFileTimeout 500 ms: [README.adoc]") //
+                    .assertLogText(
+                            "[WARN] 1 abandoned linter is still running in this JVM; in a long-lived JVM such as the mvnd daemon, it keeps consuming resources until it returns on its own") //
+                    .assertLogText("[INFO] Formatted 3 out of 6 files") //
+                    .assertLogText("[INFO] Verified 2 fixed files") //
+                    .assertFilesEqual(expectedBaseDir,
+                            "README.adoc",
+                            "src/main/resources/indent.xml",
+                            "src/main/resources/trailing-whitespace.txt");
+        } finally {
+            BlockingLinter.release.countDown();
+        }
+    }
+
+    @Test
+    public void checkWithTimeoutSharedByLinters() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        final LinterConfig slow = new LinterConfig();
+        slow.setClassName(SlowLinter.class.getName());
+        slow.setIncludes(new String[] { "**/README.adoc" });
+        final LinterConfig otherSlow = new LinterConfig();
+        otherSlow.setClassName(OtherSlowLinter.class.getName());
+        otherSlow.setIncludes(new String[] { "**/README.adoc" });
+        mavenExec.mojo.linters = Arrays.asList(slow, otherSlow);
+        mavenExec.mojo.perFileTimeout = 1000;
+
+        /* Each linter alone would finish in time, but the second one gets only what the first one left */
+        mavenExec //
+                .execute() //
+                .assertLogText(
+                        "[WARN] Abandoning file 'README.adoc': linter org.ec4j.maven.EditorConfigMojosTest$OtherSlowLinter did not finish within perFileTimeout 1000 ms") //
+                .assertLogText("[WARN] Abandoned 1 file not linted within perFileTimeout 1000 ms: [README.adoc]") //
+        ;
+
+        try (LinterWatchdog watchdog = new LinterWatchdog()) {
+            /* A linter whose file is out of time already must not be started nor counted as abandoned */
+            Assertions.assertThat(watchdog.process(new SlowLinter(), null, null, null, System.nanoTime())).isFalse();
+        }
+
+        /* The interrupted OtherSlowLinter returns; so does BlockingLinter once released by fixWithTimeout() */
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (LinterWatchdog.getAbandonedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(LinterWatchdog.getAbandonedCount()).isEqualTo(0);
+    }
+
+    /**
+     * A {@link Linter} that takes 600 ms for every file unless interrupted.
+     */
+    public static class SlowLinter implements Linter {
+
+        @Override
+        public List<String> getDefaultExcludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getDefaultIncludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void process(Resource resource, ResourceProperties properties, ViolationHandler violationHandler) {
+            try {
+                Thread.sleep(600);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Another {@link SlowLinter}.
+     */
+    public static class OtherSlowLinter extends SlowLinter {
+    }
+
+    /**
+     * A {@link Linter} that ignores interruption and blocks on files without trailing whitespace until
+     * {@link #release} is counted down.
+     */
+    public static class BlockingLinter implements Linter {
+        static final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public List<String> getDefaultExcludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getDefaultIncludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void process(Resource resource, ResourceProperties properties, ViolationHandler violationHandler) {
+            if (resource.getText().contains("  \n")) {
+                return;
+            }
+            boolean released = false;
+            while (!released) {
+                try {
+                    release.await();
+                    released = true;
+                } catch (InterruptedException e) {
+                    /* Like a linter stuck in a loop that does not check the interrupted flag */
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link Linter} reporting a violation whose fix does nothing in every file.
+     */
+    public static class UnfixableLinter implements Linter {
+
+        @Override
+        public List<String> getDefaultExcludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getDefaultIncludes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void process(Resource resource, ResourceProperties properties, ViolationHandler violationHandler) {
+            final Edit noOp = new Edit() {
+                @Override
+                public String getMessage() {
+                    return "Do nothing";
+                }
+
+                @Override
+                public void perform(Resource resource, int offset) {
+                }
+            };
+            violationHandler.handle(new Violation(resource, Location.initial(), noOp, this, "unfixable", "true"));
+        }
+    }
+
     @Test
     public void submodulesProfileless() throws Exception {
 
@@ -203,6 +611,7 @@ public class EditorConfigMojosTest {
                     .assertErrorFreeLog()
                     .assertNoLogText(
                             "[TRACE] Processing file 'module-1/good-1.adoc' using linter org.ec4j.linters.TextLinter") //
+                    .assertNoLogText("[DEBUG] Processing file 'module-1/good-1.adoc'") //
                     .assertNoLogText(
                             "[TRACE] Processing file 'module-2/bad.xml' using linter org.ec4j.linters.TextLinter") //
                     .assertNoLogText("[TRACE] Processing file 'bad.xml' using linter org.ec4j.linters.TextLinter") //
@@ -219,7 +628,8 @@ public class EditorConfigMojosTest {
             mavenExec //
                     .execute() //
                     .assertErrorFreeLog()
-                    .assertLogText("[TRACE] Processing file 'good-1.adoc' using linter org.ec4j.linters.TextLinter") //
+                    .assertLogText(
+                            "[TRACE] Skipping linter org.ec4j.linters.TextLinter for file 'good-1.adoc': no violations found by the pre-screen") //
             ;
         }
     }
@@ -263,6 +673,138 @@ public class EditorConfigMojosTest {
                 .assertLogText("[DEBUG] Using excludesFile '" + ignoreTxt + "'");
     }
 
+    @Test
+    public void filesFrom() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+
+        final Path filesTxt = mavenExec.mojo.basedir.toPath().resolve("files.txt");
+        Files.write(filesTxt, "README.adoc\0src/main/resources/indent.xml\0missing.txt\0../outside.txt\0"
+                .getBytes(StandardCharsets.UTF_8));
+        mavenExec.mojo.filesFrom = filesTxt.toString();
+
+        mavenExec //
+                .execute() //
+                .assertLogText("[TRACE] Processing file 'README.adoc' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText(
+                        "[TRACE] Processing file 'src/main/resources/indent.xml' using linter org.ec4j.linters.XmlLinter"
+                                .replace('/', File.separatorChar)) //
+                .assertLogText("[DEBUG] Ignoring 'missing.txt' from filesFrom: not a regular file") //
+                .assertNoLogText("[TRACE] Processing file 'pom.xml' using linter org.ec4j.linters.TextLinter") //
+                .assertLogText("[INFO] Checked 2 files") //
+        ;
+    }
+
+    @Test
+    public void filesFromReactor() throws Exception {
+        final Verifier<EditorConfigCheckMojo> module1 = new Verifier<>(
+                "submodules",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        final Path executionRoot = module1.mojo.basedir.toPath();
+        final Verifier<EditorConfigCheckMojo> module2 = new Verifier<>(
+                "submodules",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+        final List<MavenProject> reactorProjects = Arrays.asList(new MavenProject(), new MavenProject());
+        for (Verifier<EditorConfigCheckMojo> module : Arrays.asList(module1, module2)) {
+            module.mojo.executionRootDirectory = executionRoot.toString();
+            module.mojo.reactorProjects = reactorProjects;
+            module.mojo.filesFrom = "-";
+        }
+        module1.mojo.basedir = executionRoot.resolve("module-1").toFile();
+        module2.mojo.basedir = executionRoot.resolve("module-2").toFile();
+
+        final InputStream stdin = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream(
+                    "module-1/good-1.adoc\0module-2/good.xml\0".getBytes(StandardCharsets.UTF_8)));
+            module1 //
+                    .execute() //
+                    .assertErrorFreeLog() //
+                    .assertLogText("[DEBUG] Processing file 'good-1.adoc'") //
+                    .assertLogText("[INFO] Checked 1 file") //
+            ;
+            module2 //
+                    .execute() //
+                    .assertErrorFreeLog() //
+                    .assertLogText("[DEBUG] Processing file 'good.xml'") //
+                    .assertNoLogText("[DEBUG] Processing file 'bad.xml'") //
+                    .assertLogText("[INFO] Checked 1 file") //
+            ;
+        } finally {
+            System.setIn(stdin);
+        }
+    }
+
+    @Test
+    public void scopeSources() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+
+        final Path basedir = mavenExec.mojo.basedir.toPath();
+        final Path generatedSources = basedir.resolve("target/generated-sources");
+        Files.createDirectories(generatedSources);
+        Files.write(generatedSources.resolve("Generated.java"), "trailing whitespace \n".getBytes(StandardCharsets.UTF_8));
+        final MavenProject project = new MavenProject();
+        project.getBuild().setDirectory(basedir.resolve("target").toString());
+        project.addCompileSourceRoot(basedir.resolve("src/main/java").toString());
+        project.addCompileSourceRoot(generatedSources.toString());
+        mavenExec.mojo.project = project;
+        mavenExec.mojo.scope = "sources";
+
+        mavenExec //
+                .execute() //
+                .assertLogText("[DEBUG] Ignoring root '" + generatedSources + "': under the build directory '"
+                        + basedir.resolve("target") + "'") //
+                .assertLogText("[DEBUG] Walking '" + "src/main/java".replace('/', File.separatorChar) + "'") //
+                .assertLogText("[DEBUG] Processing file 'README.adoc'") //
+                .assertLogText("[DEBUG] Processing file '"
+                        + "src/main/java/org/ec4j/maven/it/defaults/App.java".replace('/', File.separatorChar) + "'") //
+                .assertNoLogText("[DEBUG] Processing file '"
+                        + "src/main/resources/indent.xml".replace('/', File.separatorChar) + "'") //
+                .assertNoLogText("[DEBUG] Processing file '"
+                        + "target/generated-sources/Generated.java".replace('/', File.separatorChar) + "'") //
+                .assertLogText("[INFO] Checked 4 files") //
+        ;
+    }
+
+    @Test
+    public void checkWithLegacyHandler() throws Exception {
+        final Verifier<LegacyCheckMojo> mavenExec = new Verifier<>(
+                "defaults",
+                LegacyCheckMojo.class,
+                Arrays.asList("log.txt"));
+
+        mavenExec //
+                .execute() //
+                .assertLogText(
+                        "[ERROR] src/main/resources/trailing-whitespace.txt@1,7: Delete 2 characters - violates trim_trailing_whitespace = true, reported by org.ec4j.linters.TextLinter"
+                                .replace('/', File.separatorChar)) //
+                .assertLogText("[INFO] BUILD FAILURE") //
+        ;
+    }
+
+    @Test
+    public void unconsumedProperties() throws Exception {
+        final Verifier<EditorConfigCheckMojo> mavenExec = new Verifier<>(
+                "unconsumed-properties",
+                EditorConfigCheckMojo.class,
+                Arrays.asList("log.txt"));
+
+        mavenExec //
+                .execute() //
+                .assertErrorFreeLog() //
+                .assertLogText("[DEBUG] Skipping file 'README.adoc': no linter consumes any of its .editorconfig properties") //
+                .assertNoLogText("[TRACE] Processing file 'README.adoc' using linter org.ec4j.linters.TextLinter") //
+                .assertNoLogText("[TRACE] Creating a Resource for path 'README.adoc' with encoding 'UTF-8'") //
+        ;
+    }
+
     static class Verifier<T extends AbstractEditorConfigMojo> {
         private final T mojo;
         private final LogRecorder logger;
@@ -280,6 +822,10 @@ public class EditorConfigMojosTest {
                 mojo = (T) new EditorConfigCheckMojo(logger);
             } else if (mojoClass == EditorConfigFormatMojo.class) {
                 mojo = (T) new EditorConfigFormatMojo(logger);
+            } else if (mojoClass == EditorConfigFixMojo.class) {
+                mojo = (T) new EditorConfigFixMojo(logger);
+            } else if (mojoClass == LegacyCheckMojo.class) {
+                mojo = (T) new LegacyCheckMojo(logger);
             } else {
                 throw new IllegalStateException("Unexpected mojo type " + mojoClass);
             }
@@ -307,13 +853,30 @@ public class EditorConfigMojosTest {
 
     }
 
-    static class LogRecorder extends LegacyAbstractLogger {
+    /**
+     * A subclass written against the API before 0.2.1, overriding only {@link #createHandler()} and logging via
+     * {@link #log}.
+     */
+    static class LegacyCheckMojo extends AbstractEditorConfigMojo {
+
+        LegacyCheckMojo(Logger log) {
+            super(log);
+        }
+
+        @Override
+        protected ViolationHandler createHandler() {
+            return new ViolationCollector(true, "mvn editorconfig:format", new Slf4jLintLogger(log));
+        }
+    }
+
+    static class LogRecorder extends AbstractSlf4jLogger {
 
         final List<String> messages = new CopyOnWriteArrayList<>();
 
         private final Path basedir;
 
         public LogRecorder(Path basedir) {
+            super(LogRecorder.class.getName());
             this.basedir = basedir;
         }
 
@@ -350,33 +913,15 @@ public class EditorConfigMojosTest {
             return this;
         }
 
-        public boolean isTraceEnabled() {
-            return true;
-        }
-
-        public boolean isDebugEnabled() {
-            return true;
-        }
-
-        public boolean isInfoEnabled() {
-            return true;
-        }
-
-        public boolean isWarnEnabled() {
-            return true;
-        }
-
-        public boolean isErrorEnabled() {
-            return true;
-        }
-
-        protected void handleNormalizedLoggingCall(Level level, Marker marker, String msg, Object[] args, Throwable throwable) {
-            messages.add(String.format("[%s] %s", level, MessageFormatter.arrayFormat(msg, args).getMessage().trim()));
+        @Override
+        protected void handle(int level, String messagePattern, Object[] arguments) {
+            messages.add(String.format("[%s] %s", levelName(level),
+                    MessageFormatter.arrayFormat(messagePattern, arguments).getMessage().trim()));
         }
 
         @Override
-        protected String getFullyQualifiedCallerName() {
-            return null;
+        protected boolean isEnabled(int level) {
+            return true;
         }
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.File;
+import java.util.Random;
+
+import org.apache.maven.shared.utils.io.SelectorUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link PathPatterns} matches the same paths as {@link SelectorUtils#matchPath(String, String, boolean)}.
+ */
+public class PathPatternsTest {
+
+    private static final String[] PATH_SEGMENTS = { "a", "b", "ab", "ba", "aab", "a.x", "b.x", ".x", "x" };
+    private static final String[] PATTERN_SEGMENTS = { "**", "*", "a", "b", "ab", "a*", "*a", "*b", "*.x", "a?", "?",
+            "a*b", "*a*", "?b*" };
+
+    /**
+     * @param slashSeparated a path or pattern using {@code /} as a separator
+     * @return the given path or pattern using {@link File#separatorChar}
+     */
+    static String os(String slashSeparated) {
+        return slashSeparated.replace('/', File.separatorChar);
+    }
+
+    static void assertMatches(String pattern, String path, boolean expected) {
+        Assertions.assertThat(SelectorUtils.matchPath(os(pattern), os(path), true))
+                .as("SelectorUtils: pattern '%s', path '%s'", pattern, path).isEqualTo(expected);
+        Assertions.assertThat(PathPatterns.compile(os(pattern)).matches(os(path)))
+                .as("PathPatterns: pattern '%s', path '%s'", pattern, path).isEqualTo(expected);
+    }
+
+    @Test
+    public void doubleStar() {
+        assertMatches("**", "a", true);
+        assertMatches("**", "a/b/c", true);
+        assertMatches("**/a", "a", true);
+        assertMatches("**/a", "b/b/a", true);
+        assertMatches("**/**/a", "a", true);
+        assertMatches("a/**", "a", true);
+        assertMatches("a/**", "a/b/c", true);
+        assertMatches("a/**/b", "a/b", true);
+        assertMatches("a/**/b", "a/x/x/b", true);
+        assertMatches("a/**/b", "a/x/x/b/x", false);
+        assertMatches("a/**/**/b/**", "a/b", true);
+        assertMatches("**/a/**", "x/a", true);
+        assertMatches("**/a/**", "x/ab/x", false);
+    }
+
+    @Test
+    public void prefixAndSuffix() {
+        assertMatches("a*", "a", true);
+        assertMatches("a*", "ab", true);
+        assertMatches("a*", "ba", false);
+        assertMatches("*a", "a", true);
+        assertMatches("*a", "ba", true);
+        assertMatches("*a", "ab", false);
+        assertMatches("*.x", ".x", true);
+        assertMatches("*.x", "a.x", true);
+        assertMatches("*.x", ".xa", false);
+        assertMatches("*.x", "a/b.x", false);
+        assertMatches("**/*.x", "a/b.x", true);
+        assertMatches("a*b", "ab", true);
+        assertMatches("a*b", "aab", true);
+        assertMatches("a*b", "aba", false);
+        assertMatches("a?", "ab", true);
+        assertMatches("a?", "a", false);
+    }
+
+    @Test
+    public void handlerPrefixes() {
+        assertMatches("%regex[a/.*\\.x]", "a/b.x", true);
+        assertMatches("%regex[a/.*\\.x]", "b/b.x", false);
+        assertMatches("%ant[**/*.x]", "a/b.x", true);
+        assertMatches("%ant[a/*]", "a/b/c", false);
+        final PathPatterns patterns = PathPatterns.compile(os("%regex[a/.*]"), os("b/**"));
+        Assertions.assertThat(patterns.matches(os("a/x"))).isTrue();
+        Assertions.assertThat(patterns.matches(os("b/x"))).isTrue();
+        Assertions.assertThat(patterns.matches(os("c/x"))).isFalse();
+        /* A regular expression can match anything under any directory */
+        Assertions.assertThat(patterns.mayMatchUnder("c")).isTrue();
+    }
+
+    @Test
+    public void leadingSeparator() {
+        assertMatches("/a", "a", false);
+        assertMatches("/**", "a", false);
+        assertMatches("/**/a", "b/a", false);
+    }
+
+    @Test
+    public void randomCrossCheck() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final String pattern = randomPath(random, PATTERN_SEGMENTS);
+            final PathPatterns patterns = PathPatterns.compile(os(pattern));
+            final String dir = randomPath(random, PATH_SEGMENTS);
+            for (int j = 0; j < 4; j++) {
+                final String path = j == 0 ? dir : dir + "/" + randomPath(random, PATH_SEGMENTS);
+                final boolean expected = SelectorUtils.matchPath(os(pattern), os(path), true);
+                Assertions.assertThat(patterns.matches(os(path)))
+                        .as("pattern '%s', path '%s'", pattern, path).isEqualTo(expected);
+                if (j > 0 && expected) {
+                    Assertions.assertThat(patterns.mayMatchUnder(os(dir)))
+                            .as("mayMatchUnder: pattern '%s', dir '%s', path '%s'", pattern, dir, path).isTrue();
+                }
+                if (j > 0 && !expected) {
+                    Assertions.assertThat(patterns.matchesAllUnder(os(dir)))
+                            .as("matchesAllUnder: pattern '%s', dir '%s', path '%s'", pattern, dir, path).isFalse();
+                }
+            }
+        }
+    }
+
+    private static String randomPath(Random random, String[] segments) {
+        final StringBuilder result = new StringBuilder();
+        final int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                result.append('/');
+            }
+            result.append(segments[random.nextInt(segments.length)]);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 EditorConfig Maven Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.ec4j.core.Resource.Resources;
+import org.ec4j.core.ResourcePath.ResourcePaths;
+import org.ec4j.core.ResourceProperties;
+import org.ec4j.core.ResourcePropertiesService;
+import org.ec4j.core.model.EditorConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the literal suffix pre-filter of {@link SectionMatcher} drops no section ec4j would match and that
+ * {@link PropertiesResolver} resolves the same properties as ec4j.
+ */
+public class SectionMatcherTest {
+
+    @Test
+    public void literalSuffixes() {
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*.java")).containsExactly(".java");
+        Assertions.assertThat(SectionMatcher.literalSuffixes("Makefile")).containsExactly("Makefile");
+        Assertions.assertThat(SectionMatcher.literalSuffixes("src/**/*.xml")).containsExactly(".xml");
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*.{js,ts}")).containsExactly("js", "ts");
+        Assertions.assertThat(SectionMatcher.literalSuffixes("{*.yml,*.yaml}")).containsExactly(".yml", ".yaml");
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("**")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*.[ch]")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("{a}")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*.{1..3}")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("*.{js,}")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("{a,{b,c}}")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("dir/")).isNull();
+        Assertions.assertThat(SectionMatcher.literalSuffixes("esc\\aped.txt")).isNull();
+    }
+
+    /**
+     * Resolves the properties of each file in the {@code sections} test project, whose sections exercise the corner
+     * cases of {@link SectionMatcher#literalSuffixes(String)}. A section dropped by the pre-filter shows up as a
+     * difference from {@link ResourcePropertiesService} and as an unexpected {@code indent_size}.
+     */
+    @Test
+    public void sections() throws IOException {
+        final Path basedir = Paths.get("src/test/projects/sections").toAbsolutePath().normalize();
+        final PropertiesResolver resolver = new PropertiesResolver(
+                ResourcePropertiesService.builder().cache(new LruCache(-1)).build());
+        /* LruCache is a plain ec4j Cache for ResourcePropertiesService */
+        final ResourcePropertiesService reference = ResourcePropertiesService.builder().cache(new LruCache(-1))
+                .build();
+        final Map<String, String> indentSizes = new TreeMap<>();
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(basedir)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            final ResourceProperties referenceProperties = reference
+                    .queryProperties(Resources.ofPath(file, StandardCharsets.UTF_8));
+            final ResourceProperties actual = resolver.queryProperties(file, StandardCharsets.UTF_8);
+            final String relPath = basedir.relativize(file).toString().replace('\\', '/');
+            Assertions.assertThat(actual.getProperties()).as(relPath).isEqualTo(referenceProperties.getProperties());
+            indentSizes.put(relPath, actual.getProperties().get("indent_size").getSourceValue());
+        }
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put(".editorconfig", "1");
+        expected.put("Makefile", "6");
+        expected.put("Makefile.bak", "1");
+        expected.put("a", "1");
+        expected.put("a.js", "2");
+        expected.put("b.ts", "2");
+        expected.put("c.jsx", "1");
+        expected.put("d.yml", "3");
+        expected.put("dir/.editorconfig", "1");
+        expected.put("dir/a.js", "10");
+        expected.put("dir/x.txt", "1");
+        expected.put("e.yaml", "3");
+        expected.put("escaped.txt", "8");
+        expected.put("f.yamlx", "1");
+        expected.put("g.10", "1");
+        expected.put("g.2", "5");
+        expected.put("g.3", "5");
+        expected.put("g.4", "1");
+        expected.put("sub/Makefile", "6");
+        expected.put("sub/a.ts", "2");
+        expected.put("{a}", "4");
+        Assertions.assertThat(indentSizes).isEqualTo(expected);
+    }
+
+    @Test
+    public void unsupportedConfiguration() {
+        Assertions.assertThatThrownBy(() -> new PropertiesResolver(ResourcePropertiesService.default_()))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("requires an LruCache");
+        Assertions
+                .assertThatThrownBy(() -> new PropertiesResolver(ResourcePropertiesService.builder()
+                        .cache(new LruCache(-1))
+                        .rootDirectory(ResourcePaths.ofPath(Paths.get("src/test/projects"), StandardCharsets.UTF_8))
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("root directories");
+        Assertions
+                .assertThatThrownBy(() -> new PropertiesResolver(ResourcePropertiesService.builder()
+                        .cache(new LruCache(-1)).defaultEditorConfig(EditorConfig.builder().build()).build()))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("default EditorConfigs");
+    }
+}
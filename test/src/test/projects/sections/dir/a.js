@@ -0,0 +1 @@
+dir/a.js
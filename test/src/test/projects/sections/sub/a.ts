@@ -0,0 +1 @@
+sub/a.ts